@@ -0,0 +1,78 @@
+package lottery.benchmarks;
+
+import lottery.infrastructure.DrawEvaluation;
+import lottery.infrastructure.LotteryContext;
+import lottery.infrastructure.LotteryHeadquarters;
+import lottery.infrastructure.Retailer;
+import lottery.player.PersonalInfo;
+import lottery.player.Player;
+import lottery.player.PlayerMinimalist;
+import lottery.ticket.Slip;
+import lottery.utility.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// One whole drawNumbers round over ten retailers: evaluation, prize pools and the history record.
+// Each iteration sells into a fresh lottery and times its first draw.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DrawNumbersBenchmark {
+
+    private static final int RETAILER_COUNT = 10;
+    private static final int SLIPS_PER_PURCHASE = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    private int ticketCount;
+
+    @Param({"TICKET_SCAN", "AGGREGATED"})
+    private DrawEvaluation drawEvaluation;
+
+    private LotteryHeadquarters headquarters;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        RandomGenerator random = RandomSource.split();
+        LotteryContext context = new LotteryContext();
+        headquarters = context.headquarters();
+        headquarters.setDrawEvaluation(drawEvaluation);
+
+        List<Retailer> retailers = new ArrayList<>();
+        for (int i = 0; i < RETAILER_COUNT; i++) {
+            retailers.add(new Retailer(context));
+        }
+        for (int sold = 0; sold < ticketCount; sold += SLIPS_PER_PURCHASE) {
+            Retailer retailer = retailers.get(random.nextInt(RETAILER_COUNT));
+            Player player = new PlayerMinimalist(PersonalInfo.generateRandomInfo(), Long.MAX_VALUE / 2, retailer);
+            List<Slip> slips = new ArrayList<>(SLIPS_PER_PURCHASE);
+            for (int i = 0; i < SLIPS_PER_PURCHASE; i++) {
+                slips.add(Slip.random(random.nextInt(8) + 1, random.nextInt(10) + 1, random));
+            }
+            retailer.buyTickets(player, slips);
+        }
+    }
+
+    @Benchmark
+    public LotteryHeadquarters drawNumbers() {
+        headquarters.drawNumbers();
+        return headquarters;
+    }
+}
\ No newline at end of file
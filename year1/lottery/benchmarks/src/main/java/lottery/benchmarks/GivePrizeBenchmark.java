@@ -0,0 +1,64 @@
+package lottery.benchmarks;
+
+import lottery.infrastructure.LotteryContext;
+import lottery.infrastructure.Retailer;
+import lottery.player.PersonalInfo;
+import lottery.player.Player;
+import lottery.player.PlayerMinimalist;
+import lottery.ticket.Slip;
+import lottery.ticket.Ticket;
+import lottery.utility.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// A ticket can only be claimed once, so every iteration sells a fresh batch, draws, then claims one per call.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = GivePrizeBenchmark.TICKET_COUNT)
+@Measurement(iterations = 10, batchSize = GivePrizeBenchmark.TICKET_COUNT)
+@Fork(1)
+public class GivePrizeBenchmark {
+
+    static final int TICKET_COUNT = 20_000;
+
+    private Retailer retailer;
+    private Player player;
+    private Ticket[] tickets;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        RandomGenerator random = RandomSource.split();
+        LotteryContext context = new LotteryContext();
+        retailer = new Retailer(context);
+        player = new PlayerMinimalist(PersonalInfo.generateRandomInfo(), Long.MAX_VALUE / 2, retailer);
+        for (int i = 0; i < TICKET_COUNT; i++) {
+            retailer.buyTicketWithSlip(player, Slip.random(8, 1, random));
+        }
+        context.headquarters().drawNumbers();
+
+        List<Ticket> owned = player.ownedTickets();
+        tickets = owned.toArray(new Ticket[0]);
+        next = 0;
+    }
+
+    @Benchmark
+    public Player givePrize() {
+        retailer.givePrize(player, tickets[next++]);
+        return player;
+    }
+}
\ No newline at end of file
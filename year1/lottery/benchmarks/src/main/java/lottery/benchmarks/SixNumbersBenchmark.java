@@ -0,0 +1,70 @@
+package lottery.benchmarks;
+
+import lottery.ticket.SixNumbers;
+import lottery.utility.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SixNumbersBenchmark {
+
+    // A power of two, so picking the next pair is a mask.
+    private static final int SET_COUNT = 1024;
+
+    private SixNumbers[] bets;
+    private SixNumbers[] draws;
+    private RandomGenerator random;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        random = RandomSource.split();
+        bets = new SixNumbers[SET_COUNT];
+        draws = new SixNumbers[SET_COUNT];
+        for (int i = 0; i < SET_COUNT; i++) {
+            bets[i] = SixNumbers.random(random);
+            draws[i] = SixNumbers.random(random);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int hitCount() {
+        int i = next++ & (SET_COUNT - 1);
+        return bets[i].hitCount(draws[i]);
+    }
+
+    @Benchmark
+    public SixNumbers random() {
+        return SixNumbers.random(random);
+    }
+
+    @State(Scope.Thread)
+    public static class ListSize {
+        @Param({"1", "8"})
+        private int setCount;
+    }
+
+    @Benchmark
+    public List<SixNumbers> randomList(ListSize size) {
+        return SixNumbers.randomList(size.setCount);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package lottery.benchmarks;
+
+import lottery.ticket.TicketID;
+import lottery.utility.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TicketIDBenchmark {
+
+    private static final int ID_COUNT = 1 << 16;
+
+    private TicketID[] ids;
+    private TicketID[] equalIds; // Equal to ids, but other objects, so lookups go through equals.
+    private Map<TicketID, Integer> byId;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RandomGenerator random = RandomSource.split();
+        ids = new TicketID[ID_COUNT];
+        equalIds = new TicketID[ID_COUNT];
+        byId = new HashMap<>();
+        for (int i = 0; i < ID_COUNT; i++) {
+            int retailerNumber = random.nextInt(10) + 1;
+            int marker = random.nextInt(1_000_000_000);
+            ids[i] = new TicketID(i + 1, retailerNumber, marker);
+            equalIds[i] = new TicketID(i + 1, retailerNumber, marker);
+            byId.put(ids[i], i);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public int hashCodeOnly() {
+        return ids[next++ & (ID_COUNT - 1)].hashCode();
+    }
+
+    @Benchmark
+    public Integer hashMapLookup() {
+        return byId.get(equalIds[next++ & (ID_COUNT - 1)]);
+    }
+}
\ No newline at end of file
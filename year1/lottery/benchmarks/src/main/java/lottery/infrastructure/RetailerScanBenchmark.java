@@ -0,0 +1,56 @@
+package lottery.infrastructure;
+
+import lottery.ticket.SixNumbers;
+import lottery.ticket.Slip;
+import lottery.ticket.Ticket;
+import lottery.utility.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+// The scan calculateDrawResults runs over one retailer's tickets, from 10^4 to 10^7 of them.
+// Wins found aren't recorded on the tickets, so every invocation scans the very same store.
+// It lives in lottery.infrastructure for the package-private scan and ticket store.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RetailerScanBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int ticketCount;
+
+    private Retailer retailer;
+    private Draw draw;
+
+    // Tickets go straight into the store, no player has to keep them.
+    @Setup
+    public void setUp() {
+        RandomGenerator random = RandomSource.split();
+        retailer = new Retailer(new LotteryContext());
+        TicketStore store = retailer.soldTickets();
+        for (int i = 1; i <= ticketCount; i++) {
+            Slip slip = Slip.random(random.nextInt(8) + 1, random.nextInt(10) + 1, random);
+            store.add(new Ticket(retailer, slip, i, random.nextInt(1_000_000_000)));
+        }
+        draw = new Draw(1, SixNumbers.random(random));
+    }
+
+    @Benchmark
+    public GradeCounts calculateDrawResults() {
+        return retailer.countDrawResults(draw, 0, retailer.activeTicketCount());
+    }
+}
\ No newline at end of file
@@ -1,108 +1,232 @@
 package lottery;
 
 import lottery.player.*;
-import lottery.infrastructure.StateBudget;
+import lottery.infrastructure.DrawEvaluation;
+import lottery.infrastructure.LotteryContext;
+import lottery.infrastructure.Checkpoint;
+import lottery.infrastructure.FsyncPolicy;
 import lottery.infrastructure.LotteryHeadquarters;
 import lottery.infrastructure.Retailer;
+import lottery.jfr.FlightRecording;
+import lottery.jfr.PlayerPhaseEvent;
+import lottery.metrics.MetricsCsvWriter;
+import lottery.report.ReportFormat;
+import lottery.report.ReportSink;
 import lottery.ticket.Slip;
 import lottery.ticket.SixNumbers;
+import lottery.utility.RandomSource;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
 
 public class Main {
 
-    private static final Random RAND = new Random();
-
-    private static List<Retailer> createRetailers(int retailerCount) {
+    static List<Retailer> createRetailers(LotteryContext context, int retailerCount) {
         List<Retailer> retailers = new ArrayList<>();
         for (int i = 0; i < retailerCount; i++) {
-            retailers.add(new Retailer());
+            retailers.add(new Retailer(context));
         }
         return retailers;
     }
 
-    private static List<Player> createPlayers(int PlayerOfEachTypeCount, List<Retailer> retailers) {
-        List<Player> players = new ArrayList<>();
-        for (int i = 0; i < PlayerOfEachTypeCount; i++) {
-            players.add(new PlayerRandom(PersonalInfo.generateRandomInfo()));
-
-            players.add(new PlayerMinimalist(PersonalInfo.generateRandomInfo(),
-                   randomBalance(1_000_000_00), randomRetailer(retailers)));
-
-            players.add(new PlayerSameNumbers(PersonalInfo.generateRandomInfo(),
-                   randomBalance(1_000_000_00), SixNumbers.random(), randomRetailers(retailers)));
+    static List<Player> createPlayers(int PlayerOfEachTypeCount, List<Retailer> retailers) {
+        return createPlayers(PlayerOfEachTypeCount, PlayerOfEachTypeCount, PlayerOfEachTypeCount,
+                PlayerOfEachTypeCount, retailers);
+    }
 
-            Slip slip = new Slip(SixNumbers.randomList(RAND.nextInt(8) + 1),
-                   RAND.nextInt(10) + 1);
-            players.add(new PlayerSameSlip(PersonalInfo.generateRandomInfo(), randomBalance(1_000_000_00),
-                   slip, randomRetailers(retailers), RAND.nextInt(5) + 1));
+    // Players of different types are created in turns, so equal counts give the same players as above.
+    static List<Player> createPlayers(int randomCount, int minimalistCount, int sameNumbersCount, int sameSlipCount,
+                                      List<Retailer> retailers) {
+        RandomGenerator random = RandomSource.current();
+        LotteryHeadquarters headquarters = retailers.get(0).headquarters();
+        List<Player> players = new ArrayList<>();
+        int rounds = Math.max(Math.max(randomCount, minimalistCount), Math.max(sameNumbersCount, sameSlipCount));
+        for (int i = 0; i < rounds; i++) {
+            if (i < randomCount) {
+                players.add(new PlayerRandom(PersonalInfo.generateRandomInfo(), headquarters));
+            }
+            if (i < minimalistCount) {
+                players.add(new PlayerMinimalist(PersonalInfo.generateRandomInfo(),
+                       randomBalance(1_000_000_00), randomRetailer(retailers)));
+            }
+            if (i < sameNumbersCount) {
+                players.add(new PlayerSameNumbers(PersonalInfo.generateRandomInfo(),
+                       randomBalance(1_000_000_00), SixNumbers.random(), randomRetailers(retailers)));
+            }
+            if (i < sameSlipCount) {
+                Slip slip = new Slip(SixNumbers.randomList(random.nextInt(8) + 1),
+                       random.nextInt(10) + 1);
+                players.add(new PlayerSameSlip(PersonalInfo.generateRandomInfo(), randomBalance(1_000_000_00),
+                       slip, randomRetailers(retailers), random.nextInt(5) + 1));
+            }
        }
        return players;
     }
 
     private static List<Retailer> randomRetailers(List<Retailer> retailers) {
+        RandomGenerator random = RandomSource.current();
         List<Retailer> copy = new ArrayList<>(retailers);
-        Collections.shuffle(copy);
-        return copy.subList(0, RAND.nextInt(copy.size()) + 1);
+        for (int i = copy.size() - 1; i > 0; i--) {
+            Collections.swap(copy, i, random.nextInt(i + 1));
+        }
+        return copy.subList(0, random.nextInt(copy.size()) + 1);
     }
 
     private static Retailer randomRetailer(List<Retailer> retailers) {
-        return retailers.get(RAND.nextInt(retailers.size()));
+        return retailers.get(RandomSource.current().nextInt(retailers.size()));
     }
 
     private static long randomBalance(long limit) {
-        return RAND.nextLong(limit);
+        return RandomSource.current().nextLong(limit);
     }
 
-    private static void simulate(List<Player> players, int drawCount) {
-        LotteryHeadquarters headquarters = LotteryHeadquarters.getInstance();
+    // Each player buys on one thread only and has its own random stream, so the result doesn't depend on salesThreads.
+    static void simulate(LotteryContext context, List<Player> players, int drawCount, int salesThreads) {
+        simulate(context, players, drawCount, salesThreads, null);
+    }
+
+    // With a checkpoint given, one is written after every draw once its prizes are collected.
+    static void simulate(LotteryContext context, List<Player> players, int drawCount, int salesThreads,
+                         Checkpoint checkpoint) {
+        LotteryHeadquarters headquarters = context.headquarters();
+        ForkJoinPool salesPool = salesThreads > 1 ? new ForkJoinPool(salesThreads) : null;
         for (int i = 0; i < drawCount; i++) {
-            for (Player player : players) {
-                player.buyTicket();
+            int drawNumber = headquarters.lastDrawNumber() + 1;
+            PlayerPhaseEvent phase = beginPhase();
+            if (salesPool == null) {
+                for (Player player : players) {
+                    player.buyTicket();
+                }
+            } else {
+                salesPool.submit(() -> players.parallelStream().forEach(Player::buyTicket)).join();
             }
+            commitPhase(phase, PlayerPhaseEvent.BUY, drawNumber, players.size());
 
+            phase = beginPhase();
             headquarters.drawNumbers();
+            commitPhase(phase, PlayerPhaseEvent.DRAW, drawNumber, players.size());
 
+            phase = beginPhase();
             for (Player player : players) {
                 player.collectAllFinishedTickets();
             }
+            headquarters.awaitRetailers();
+            commitPhase(phase, PlayerPhaseEvent.COLLECT, drawNumber, players.size());
+            if (checkpoint != null) checkpoint.write(players);
         }
+        if (salesPool != null) salesPool.shutdown();
     }
 
-    private static void printMillionaires(List<Player> players) {
-        System.out.println("Millionaires:");
+    private static PlayerPhaseEvent beginPhase() {
+        PlayerPhaseEvent phase = new PlayerPhaseEvent();
+        phase.begin();
+        return phase;
+    }
+
+    private static void commitPhase(PlayerPhaseEvent phase, String name, int drawNumber, int playerCount) {
+        if (!phase.shouldCommit()) return;
+        phase.phase = name;
+        phase.drawNumber = drawNumber;
+        phase.players = playerCount;
+        phase.commit();
+    }
+
+    static void report(LotteryContext context, List<Player> players, ReportSink sink) {
+        context.headquarters().reportDraws(sink);
+        sink.separator();
 
-        boolean millionairesExist = false;
+        context.headquarters().reportBalance(sink);
+        context.stateBudget().reportFinances(sink);
+        sink.separator();
+
+        int millionaires = 0;
         for (Player player : players) {
-            if (player.balance() > 1_000_000_00L) {
-                millionairesExist = true;
-                System.out.println(player);
+            long balance = player.balance();
+            if (balance > 1_000_000_00L) {
+                millionaires++;
+                sink.millionaire(player.personalInfo(), balance);
             }
         }
-        if (!millionairesExist) {
-            System.out.println("nobody became a millionaire :(");
+        sink.millionairesDone(millionaires);
+        sink.flush();
+    }
+
+    // -Dlottery.report picks the layout, -Dlottery.reportFile sends it to a file instead of the standard output.
+    private static void report(LotteryContext context, List<Player> players) {
+        ReportFormat format = ReportFormat.valueOf(System.getProperty("lottery.report", "TEXT"));
+        String reportFile = System.getProperty("lottery.reportFile");
+        if (reportFile == null) {
+            report(context, players, format.open(System.out));
+            return;
+        }
+        try (OutputStream out = Files.newOutputStream(Path.of(reportFile))) {
+            report(context, players, format.open(out));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write report to " + reportFile + ".", e);
         }
     }
 
     public static void main(String[] args) {
-        LotteryHeadquarters headquarters = LotteryHeadquarters.getInstance();
-        StateBudget stateBudget = StateBudget.getInstance();
-
-        List<Retailer> retailers = createRetailers(10);
-        List<Player> players = createPlayers(200, retailers);
-
-        simulate(players, 20);
+        String checkpointFile = System.getProperty("lottery.checkpoint");
+        LotteryContext context;
+        List<Player> players;
+        Checkpoint checkpoint = null;
+        int drawCount = 20;
+
+        // -Dlottery.resume picks up where the checkpoint left off, otherwise the lottery starts from scratch.
+        if (checkpointFile != null && Boolean.getBoolean("lottery.resume")) {
+            Checkpoint.Restored restored = Checkpoint.restore(Path.of(checkpointFile));
+            context = restored.context();
+            players = restored.players();
+            checkpoint = restored.checkpoint();
+            drawCount -= context.headquarters().lastDrawNumber(); // Only the draws the checkpoint hasn't seen.
+        } else {
+            context = LotteryContext.global();
+            context.headquarters().setDrawEvaluation(
+                    DrawEvaluation.valueOf(System.getProperty("lottery.drawEvaluation", "TICKET_SCAN")));
+            String drawHistory = System.getProperty("lottery.drawHistory");
+            if (drawHistory != null) context.headquarters().openDrawHistory(Path.of(drawHistory));
+            List<Retailer> retailers = createRetailers(context, 10);
+            players = createPlayers(200, retailers);
+            if (checkpointFile != null) checkpoint = new Checkpoint(context, Path.of(checkpointFile));
+        }
+        LotteryHeadquarters headquarters = context.headquarters();
 
-        headquarters.printResultsOfAllDraws();
-        System.out.println();
+        String journal = System.getProperty("lottery.journal");
+        if (journal != null) {
+            context.openJournal(Path.of(journal),
+                    FsyncPolicy.valueOf(System.getProperty("lottery.journalFsync", "PERIODIC")),
+                    Long.getLong("lottery.journalFsyncMillis", 1000));
+        }
 
-        headquarters.giveBalanceDetails();
-        stateBudget.listStateFinanceRecords();
-        System.out.println();
+        // -Dlottery.jfr records the run, the lottery's own events included, into the given file.
+        String jfrFile = System.getProperty("lottery.jfr");
+        FlightRecording recording = jfrFile == null ? null : new FlightRecording(Path.of(jfrFile));
+
+        String metricsFile = System.getProperty("lottery.metrics");
+        MetricsCsvWriter metrics = metricsFile == null ? null : new MetricsCsvWriter(Path.of(metricsFile));
+        context.metrics().setDrawListener(metrics);
+
+        int actorThreads = Integer.getInteger("lottery.actorThreads", 0);
+        if (actorThreads > 0) headquarters.startRetailerActors(1024, actorThreads);
+        simulate(context, players, drawCount, Integer.getInteger("lottery.salesThreads", 1), checkpoint);
+        headquarters.stopRetailerActors();
+        if (checkpoint != null) checkpoint.close();
+        context.closeJournal();
+        if (metrics != null) {
+            context.metrics().setDrawListener(null);
+            metrics.close();
+        }
+        if (recording != null) recording.close();
 
-        printMillionaires(players);
+        report(context, players);
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package lottery;
+
+import lottery.infrastructure.Draw;
+import lottery.infrastructure.LotteryContext;
+import lottery.infrastructure.Retailer;
+import lottery.player.Player;
+import lottery.utility.Formatter;
+import lottery.utility.RandomSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToLongFunction;
+
+// Runs Main's simulation many times over, each run in a context and with a random stream of its own.
+// The n-th run gets the same seed whatever the thread count, so the summary only depends on lottery.seed.
+public class MonteCarloRunner {
+
+    private static final long MILLIONAIRE_BALANCE = 1_000_000_00L;
+
+    public record RunResult(long seed, long balance, long subsidies, int longestRolloverStreak, int millionaires) {
+    }
+
+    public record Statistic(long min, long max, double mean) {
+
+        static Statistic of(List<RunResult> results, ToLongFunction<RunResult> metric) {
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            double sum = 0;
+            for (RunResult result : results) {
+                long value = metric.applyAsLong(result);
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+            return new Statistic(min, max, sum / results.size());
+        }
+    }
+
+    public record Summary(int runs, Statistic balance, Statistic subsidies, Statistic longestRolloverStreak,
+                          Statistic millionaires) {
+    }
+
+    private final int retailerCount;
+    private final int playersOfEachType;
+    private final int drawCount;
+
+    public MonteCarloRunner(int retailerCount, int playersOfEachType, int drawCount) {
+        this.retailerCount = retailerCount;
+        this.playersOfEachType = playersOfEachType;
+        this.drawCount = drawCount;
+    }
+
+    public Summary run(int runs, int threads) {
+        List<RunResult> results = runAll(runs, threads);
+        return new Summary(runs,
+                Statistic.of(results, RunResult::balance),
+                Statistic.of(results, RunResult::subsidies),
+                Statistic.of(results, RunResult::longestRolloverStreak),
+                Statistic.of(results, RunResult::millionaires));
+    }
+
+    public List<RunResult> runAll(int runs, int threads) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<RunResult>> futures = new ArrayList<>(runs);
+            for (int i = 0; i < runs; i++) {
+                long seed = RandomSource.forShard(i).nextLong();
+                futures.add(pool.submit(() -> RandomSource.withSeed(seed, () -> runOnce(seed))));
+            }
+
+            List<RunResult> results = new ArrayList<>(runs);
+            for (Future<RunResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the simulations.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A simulation failed.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private RunResult runOnce(long seed) {
+        LotteryContext context = new LotteryContext();
+        List<Retailer> retailers = Main.createRetailers(context, retailerCount);
+        List<Player> players = Main.createPlayers(playersOfEachType, retailers);
+        Main.simulate(context, players, drawCount, 1);
+
+        int millionaires = 0;
+        for (Player player : players) {
+            if (player.balance() > MILLIONAIRE_BALANCE) millionaires++;
+        }
+        return new RunResult(seed, context.headquarters().balance(), context.stateBudget().subsidies(),
+                longestRolloverStreak(context.draws()), millionaires);
+    }
+
+    // The longest run of draws in a row in which nobody hit all six numbers.
+    private static int longestRolloverStreak(List<Draw> draws) {
+        int longest = 0;
+        int current = 0;
+        for (Draw draw : draws) {
+            current = draw.hitGrades()[0] == 0 ? current + 1 : 0;
+            longest = Math.max(longest, current);
+        }
+        return longest;
+    }
+
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        Summary summary = new MonteCarloRunner(10, 200, 20).run(runs, threads);
+        System.out.println("Runs: " + summary.runs());
+        System.out.println("Headquarters balance: " + centsStatistic(summary.balance()));
+        System.out.println("Subsidies paid:       " + centsStatistic(summary.subsidies()));
+        System.out.println("Rollover streak:      " + plainStatistic(summary.longestRolloverStreak()));
+        System.out.println("Millionaires:         " + plainStatistic(summary.millionaires()));
+    }
+
+    private static String plainStatistic(Statistic statistic) {
+        return "min " + statistic.min() + ", max " + statistic.max() + ", mean " + String.format("%.2f", statistic.mean());
+    }
+
+    private static String centsStatistic(Statistic statistic) {
+        return "min " + Formatter.centsToString(statistic.min()) + ", max " + Formatter.centsToString(statistic.max())
+                + ", mean " + Formatter.centsToString(Math.round(statistic.mean()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+package lottery;
+
+import lottery.exceptions.BadDataException;
+import lottery.infrastructure.DrawEvaluation;
+import lottery.infrastructure.LotteryContext;
+import lottery.infrastructure.LotteryHeadquarters;
+import lottery.infrastructure.Retailer;
+import lottery.player.Player;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToLongFunction;
+
+// Throughput of whole simulations, next to the microbenchmarks in the benchmarks module.
+// Every round is a fresh lottery. The first rounds only warm the JVM up, the rest are measured.
+// Main's own workload is always run too, through Main.simulate itself, as the baseline to compare versions by.
+// Arguments are name=value pairs, see Scenario.parse for the names and their defaults.
+public class SimulationBenchmark {
+
+    public record Scenario(int retailers, int randomPlayers, int minimalistPlayers, int sameNumbersPlayers,
+                           int sameSlipPlayers, int draws, int salesThreads, int actorThreads,
+                           DrawEvaluation drawEvaluation, int warmupRounds, int measuredRounds) {
+
+        // Main's workload unless told otherwise: 10 retailers, 200 players of each type, 20 draws, one thread.
+        static Scenario parse(String[] args) {
+            int retailers = 10;
+            int players = 200;
+            Integer randomPlayers = null;
+            Integer minimalistPlayers = null;
+            Integer sameNumbersPlayers = null;
+            Integer sameSlipPlayers = null;
+            int draws = 20;
+            int salesThreads = 1;
+            int actorThreads = 0;
+            DrawEvaluation drawEvaluation = DrawEvaluation.TICKET_SCAN;
+            int warmupRounds = 3;
+            int measuredRounds = 5;
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) throw new BadDataException("Arguments look like name=value, got " + arg + ".");
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(0, separator)) {
+                    case "retailers" -> retailers = Integer.parseInt(value);
+                    case "players" -> players = Integer.parseInt(value);
+                    case "random" -> randomPlayers = Integer.parseInt(value);
+                    case "minimalist" -> minimalistPlayers = Integer.parseInt(value);
+                    case "sameNumbers" -> sameNumbersPlayers = Integer.parseInt(value);
+                    case "sameSlip" -> sameSlipPlayers = Integer.parseInt(value);
+                    case "draws" -> draws = Integer.parseInt(value);
+                    case "salesThreads" -> salesThreads = Integer.parseInt(value);
+                    case "actorThreads" -> actorThreads = Integer.parseInt(value);
+                    case "evaluation" -> drawEvaluation = DrawEvaluation.valueOf(value);
+                    case "warmup" -> warmupRounds = Integer.parseInt(value);
+                    case "rounds" -> measuredRounds = Integer.parseInt(value);
+                    default -> throw new BadDataException("Unknown argument " + arg + ".");
+                }
+            }
+            if (retailers < 1 || draws < 1 || measuredRounds < 1)
+                throw new BadDataException("A scenario needs a retailer, a draw and a measured round.");
+            return new Scenario(retailers, randomPlayers != null ? randomPlayers : players,
+                    minimalistPlayers != null ? minimalistPlayers : players,
+                    sameNumbersPlayers != null ? sameNumbersPlayers : players,
+                    sameSlipPlayers != null ? sameSlipPlayers : players,
+                    draws, salesThreads, actorThreads, drawEvaluation, warmupRounds, measuredRounds);
+        }
+
+        int playerCount() {
+            return randomPlayers + minimalistPlayers + sameNumbersPlayers + sameSlipPlayers;
+        }
+    }
+
+    // Phase times are -1 where the phases weren't timed apart, bets are -1 where they weren't counted.
+    public record RoundResult(long ticketsSold, long betsEvaluated, long claims, long buyNanos, long drawNanos,
+                              long collectNanos, long totalNanos, long allocatedBytes, long peakHeapBytes) {
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // The scenario's own loop, the same steps as Main.simulate with a stopwatch around each phase.
+    static RoundResult runScenario(Scenario scenario) {
+        LotteryContext context = new LotteryContext();
+        LotteryHeadquarters headquarters = context.headquarters();
+        headquarters.setDrawEvaluation(scenario.drawEvaluation());
+        List<Retailer> retailers = Main.createRetailers(context, scenario.retailers());
+        List<Player> players = Main.createPlayers(scenario.randomPlayers(), scenario.minimalistPlayers(),
+                scenario.sameNumbersPlayers(), scenario.sameSlipPlayers(), retailers);
+        if (scenario.actorThreads() > 0) headquarters.startRetailerActors(1024, scenario.actorThreads());
+        ForkJoinPool salesPool = scenario.salesThreads() > 1 ? new ForkJoinPool(scenario.salesThreads()) : null;
+
+        long betsEvaluated = 0;
+        long buyNanos = 0;
+        long drawNanos = 0;
+        long collectNanos = 0;
+        long countNanos = 0;
+        resetPeakHeap();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < scenario.draws(); i++) {
+            long phaseStart = System.nanoTime();
+            if (salesPool == null) {
+                for (Player player : players) {
+                    player.buyTicket();
+                }
+            } else {
+                salesPool.submit(() -> players.parallelStream().forEach(Player::buyTicket)).join();
+            }
+            headquarters.awaitRetailers();
+            buyNanos += System.nanoTime() - phaseStart;
+
+            // Counted outside the timed phases, it doesn't allocate either.
+            phaseStart = System.nanoTime();
+            for (Retailer retailer : retailers) {
+                betsEvaluated += retailer.betsInDraw(headquarters.lastDrawNumber() + 1);
+            }
+            countNanos += System.nanoTime() - phaseStart;
+
+            phaseStart = System.nanoTime();
+            headquarters.drawNumbers();
+            drawNanos += System.nanoTime() - phaseStart;
+
+            phaseStart = System.nanoTime();
+            for (Player player : players) {
+                player.collectAllFinishedTickets();
+            }
+            headquarters.awaitRetailers();
+            collectNanos += System.nanoTime() - phaseStart;
+        }
+        long totalNanos = System.nanoTime() - start - countNanos;
+        long allocated = allocatedBytes() - allocatedBefore;
+        long peakHeap = peakHeap();
+
+        headquarters.stopRetailerActors();
+        if (salesPool != null) salesPool.shutdown();
+        return new RoundResult(headquarters.lastTicketNumber(), betsEvaluated, claimCount(retailers), buyNanos,
+                drawNanos, collectNanos, totalNanos, allocated, peakHeap);
+    }
+
+    // Main.simulate untouched, with nothing but a stopwatch around it.
+    static RoundResult runBaseline() {
+        LotteryContext context = new LotteryContext();
+        List<Retailer> retailers = Main.createRetailers(context, 10);
+        List<Player> players = Main.createPlayers(200, retailers);
+
+        resetPeakHeap();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        Main.simulate(context, players, 20, 1);
+        long totalNanos = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        return new RoundResult(context.headquarters().lastTicketNumber(), -1, claimCount(retailers), -1, -1, -1,
+                totalNanos, allocated, peakHeap());
+    }
+
+    private static long claimCount(List<Retailer> retailers) {
+        long claims = 0;
+        for (Retailer retailer : retailers) {
+            claims += retailer.claimedTicketCount();
+        }
+        return claims;
+    }
+
+    // Bytes allocated by the threads alive right now, threads gone since then aren't counted.
+    private static long allocatedBytes() {
+        long total = 0;
+        for (long allocated : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            if (allocated > 0) total += allocated;
+        }
+        return total;
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    // Sum of each pool's own peak, so a little above the true peak when the pools peaked at different times.
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private interface Round {
+        RoundResult run();
+    }
+
+    private static List<RoundResult> measure(String name, Round round, int warmupRounds, int measuredRounds) {
+        for (int i = 0; i < warmupRounds; i++) {
+            round.run();
+        }
+        List<RoundResult> results = new ArrayList<>(measuredRounds);
+        for (int i = 0; i < measuredRounds; i++) {
+            RoundResult result = round.run();
+            results.add(result);
+            System.out.println(name + " round " + (i + 1) + ": " + describe(result));
+        }
+        return results;
+    }
+
+    private static String describe(RoundResult result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%.1f ms, %d tickets, %d claims", millis(result.totalNanos()), result.ticketsSold(),
+                result.claims()));
+        if (result.buyNanos() >= 0) {
+            sb.append(String.format(", buy %.1f ms, drawNumbers %.1f ms, collect %.1f ms",
+                    millis(result.buyNanos()), millis(result.drawNanos()), millis(result.collectNanos())));
+        }
+        return sb.toString();
+    }
+
+    private static void summarize(String name, List<RoundResult> results) {
+        double tickets = mean(results, RoundResult::ticketsSold);
+        double claims = mean(results, RoundResult::claims);
+        double total = mean(results, RoundResult::totalNanos);
+        System.out.println(name + " (mean of " + results.size() + " rounds):");
+        System.out.printf("  total              %10.1f ms%n", total / 1e6);
+        if (results.get(0).buyNanos() >= 0) {
+            double buy = mean(results, RoundResult::buyNanos);
+            double draw = mean(results, RoundResult::drawNanos);
+            double collect = mean(results, RoundResult::collectNanos);
+            System.out.printf("  buy                %10.1f ms%n", buy / 1e6);
+            System.out.printf("  drawNumbers        %10.1f ms%n", draw / 1e6);
+            System.out.printf("  collect            %10.1f ms%n", collect / 1e6);
+            System.out.printf("  tickets sold/s     %10.0f%n", tickets / (buy / 1e9));
+            System.out.printf("  bets evaluated/s   %10.0f%n", mean(results, RoundResult::betsEvaluated) / (draw / 1e9));
+            System.out.printf("  claims/s           %10.0f%n", claims / (collect / 1e9));
+        } else {
+            System.out.printf("  tickets sold/s     %10.0f (over the whole run)%n", tickets / (total / 1e9));
+            System.out.printf("  claims/s           %10.0f (over the whole run)%n", claims / (total / 1e9));
+        }
+        System.out.printf("  allocated/ticket   %10.0f B%n", mean(results, RoundResult::allocatedBytes) / tickets);
+        System.out.printf("  peak heap          %10.1f MB%n", mean(results, RoundResult::peakHeapBytes) / (1 << 20));
+    }
+
+    private static double mean(List<RoundResult> results, ToLongFunction<RoundResult> metric) {
+        double sum = 0;
+        for (RoundResult result : results) {
+            sum += metric.applyAsLong(result);
+        }
+        return sum / results.size();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    public static void main(String[] args) {
+        Scenario scenario = Scenario.parse(args);
+        System.out.println("Scenario: " + scenario);
+
+        List<RoundResult> baseline = measure("baseline", SimulationBenchmark::runBaseline,
+                scenario.warmupRounds(), scenario.measuredRounds());
+        List<RoundResult> results = measure("scenario", () -> runScenario(scenario),
+                scenario.warmupRounds(), scenario.measuredRounds());
+
+        System.out.println();
+        summarize("Baseline, Main.simulate with 10 retailers, 800 players and 20 draws", baseline);
+        summarize("Scenario with " + scenario.retailers() + " retailers, " + scenario.playerCount() + " players and "
+                + scenario.draws() + " draws", results);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadDataException;
+import lottery.player.Player;
+import lottery.player.PlayerCodec;
+import lottery.ticket.Ticket;
+import lottery.utility.BinaryInput;
+import lottery.utility.BinaryOutput;
+import lottery.utility.IntIntMap;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Binary checkpoints of a whole lottery, taken between draws. Every write appends a segment with the tickets,
+// wins, claims and draws added since the previous one, plus counters, money and players in full.
+// A segment cut short by a crash fails its checksum and is dropped, so the file ends at the last good one.
+public class Checkpoint implements AutoCloseable {
+
+    private static final int MAGIC = 0x4C4F5443;
+    private static final int VERSION = 2;
+    private static final int SEGMENT_MAGIC = 0x5345474D;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int SEGMENT_HEADER_SIZE = 12; // Magic and body length.
+
+    public record Restored(LotteryContext context, List<Player> players, Checkpoint checkpoint) {
+    }
+
+    private final LotteryContext context;
+    private final FileChannel channel;
+    private final BinaryOutput out;
+
+    // How much of the lottery earlier segments already hold.
+    private int writtenDrawNumber;
+    private int writtenTicketNumber;
+    private int[] writtenRows;
+    private int[] writtenWins;
+    private BitSet[] writtenClaims;
+
+    // Starts a new checkpoint file, replacing whatever was there.
+    public Checkpoint(LotteryContext context, Path path) {
+        this(context, openChannel(path, true));
+        out.putInt(MAGIC);
+        out.putInt(VERSION);
+        out.flush();
+    }
+
+    private Checkpoint(LotteryContext context, FileChannel channel) {
+        this.context = context;
+        this.channel = channel;
+        this.out = new BinaryOutput(channel);
+        this.writtenDrawNumber = 0;
+        this.writtenTicketNumber = 0;
+        this.writtenRows = new int[0];
+        this.writtenWins = new int[0];
+        this.writtenClaims = new BitSet[0];
+    }
+
+    private static FileChannel openChannel(Path path, boolean truncate) {
+        try {
+            return truncate
+                    ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                            StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)
+                    : FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open checkpoint " + path + ".", e);
+        }
+    }
+
+    // Players have to be passed in the same order every time, tickets refer to their owners by position.
+    public void write(List<Player> players) {
+        LotteryHeadquarters headquarters = context.headquarters();
+        headquarters.awaitRetailers();
+        List<Retailer> retailers = headquarters.retailers();
+        writtenRows = Arrays.copyOf(writtenRows, retailers.size());
+        writtenWins = Arrays.copyOf(writtenWins, retailers.size());
+        int knownRetailers = writtenClaims.length;
+        writtenClaims = Arrays.copyOf(writtenClaims, retailers.size());
+        for (int i = knownRetailers; i < retailers.size(); i++) {
+            writtenClaims[i] = new BitSet();
+        }
+        IntIntMap owners = newTicketOwners(players);
+
+        long start;
+        try {
+            start = channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            out.putInt(SEGMENT_MAGIC);
+            out.putLong(0); // Filled in once the segment is complete.
+            out.takeChecksum();
+
+            out.putInt(retailers.size());
+            headquarters.writeCheckpoint(out, writtenDrawNumber);
+            for (int i = 0; i < retailers.size(); i++) {
+                TicketStore store = retailers.get(i).soldTickets();
+                store.writeCheckpoint(out, writtenRows[i], writtenWins[i], writtenClaims[i],
+                        row -> owners.get(store.ticketNumber(row), -1));
+            }
+            out.putInt(players.size());
+            for (Player player : players) {
+                PlayerCodec.write(out, player);
+            }
+
+            long checksum = out.takeChecksum();
+            long bodyLength = channel.position() - start - SEGMENT_HEADER_SIZE;
+            out.putLong(checksum);
+            out.flush();
+            channel.write(ByteBuffer.allocate(8).putLong(0, bodyLength), start + 4);
+            channel.force(false);
+        } catch (IOException e) {
+            abandonSegment(start);
+            throw new UncheckedIOException("Can't write checkpoint.", e);
+        } catch (RuntimeException e) {
+            abandonSegment(start);
+            throw e;
+        }
+
+        writtenDrawNumber = headquarters.lastDrawNumber();
+        writtenTicketNumber = headquarters.lastTicketNumber();
+        for (int i = 0; i < retailers.size(); i++) {
+            writtenRows[i] = retailers.get(i).soldTickets().rowCount();
+            writtenWins[i] = retailers.get(i).soldTickets().winCount();
+            writtenClaims[i] = retailers.get(i).soldTickets().claimedRows();
+        }
+    }
+
+    // Owners of the tickets sold since the last checkpoint, by ticket number.
+    private IntIntMap newTicketOwners(List<Player> players) {
+        IntIntMap owners = new IntIntMap();
+        for (int i = 0; i < players.size(); i++) {
+            for (Ticket ticket : players.get(i).ownedTickets()) {
+                if (ticket.ticketID().ticketNumber() > writtenTicketNumber) {
+                    owners.put(ticket.ticketID().ticketNumber(), i);
+                }
+            }
+        }
+        return owners;
+    }
+
+    // Whatever of the broken segment is still buffered goes too, so the next one starts clean.
+    private void abandonSegment(long size) {
+        out.discard();
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException ignored) {
+            // The broken segment fails its checksum anyway.
+        }
+    }
+
+    // Builds the lottery back in a new context. Retailers, tickets, draws and money are as they were,
+    // players and quick-pick urns get fresh random streams. Writing can go on through the returned checkpoint.
+    public static Restored restore(Path path) {
+        FileChannel channel = openChannel(path, false);
+        try {
+            long validEnd = validLength(channel);
+            channel.truncate(validEnd);
+            channel.position(FILE_HEADER_SIZE);
+
+            LotteryContext context = new LotteryContext();
+            LotteryHeadquarters headquarters = context.headquarters();
+            List<IntIntMap> owners = new ArrayList<>();
+            List<Player> players = new ArrayList<>();
+            BinaryInput in = new BinaryInput(channel);
+            while (in.position() < validEnd) {
+                in.getInt();
+                in.getLong();
+                players = readSegment(in, context, owners);
+                in.getLong();
+            }
+
+            List<Retailer> retailers = headquarters.retailers();
+            for (int i = 0; i < retailers.size(); i++) {
+                Retailer retailer = retailers.get(i);
+                TicketStore store = retailer.soldTickets();
+                for (int row = 0; row < store.rowCount(); row++) {
+                    int owner = owners.get(i).get(row, -1);
+                    if (owner != -1 && !store.isClaimed(row)) {
+                        players.get(owner).addTicket(retailer.restoreTicket(row));
+                    }
+                }
+                retailer.finishRestore(headquarters.lastDrawNumber());
+            }
+
+            channel.position(validEnd);
+            Checkpoint checkpoint = new Checkpoint(context, channel);
+            checkpoint.writtenDrawNumber = headquarters.lastDrawNumber();
+            checkpoint.writtenTicketNumber = headquarters.lastTicketNumber();
+            checkpoint.writtenRows = new int[retailers.size()];
+            checkpoint.writtenWins = new int[retailers.size()];
+            checkpoint.writtenClaims = new BitSet[retailers.size()];
+            for (int i = 0; i < retailers.size(); i++) {
+                checkpoint.writtenRows[i] = retailers.get(i).soldTickets().rowCount();
+                checkpoint.writtenWins[i] = retailers.get(i).soldTickets().winCount();
+                checkpoint.writtenClaims[i] = retailers.get(i).soldTickets().claimedRows();
+            }
+            return new Restored(context, players, checkpoint);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Can't restore checkpoint " + path + ".", e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    private static List<Player> readSegment(BinaryInput in, LotteryContext context, List<IntIntMap> owners) {
+        LotteryHeadquarters headquarters = context.headquarters();
+        int retailerCount = in.getInt();
+        while (headquarters.lastRetailerNumber() < retailerCount) {
+            new Retailer(context);
+            owners.add(new IntIntMap());
+        }
+
+        headquarters.readCheckpoint(in);
+        for (int i = 0; i < retailerCount; i++) {
+            headquarters.getRetailer(i).soldTickets().readCheckpoint(in, owners.get(i));
+        }
+
+        int playerCount = in.getInt();
+        List<Player> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(PlayerCodec.read(in, headquarters));
+        }
+        return players;
+    }
+
+    // Length of the file up to the end of the last segment that's complete and passes its checksum.
+    private static long validLength(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        if (channel.read(header, 0) < FILE_HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) != VERSION)
+            throw new BadDataException("Not a checkpoint file.");
+
+        long size = channel.size();
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+        while (position + SEGMENT_HEADER_SIZE + 8 <= size) {
+            header.clear();
+            channel.read(header, position);
+            long bodyLength = header.getLong(4);
+            long bodyStart = position + SEGMENT_HEADER_SIZE;
+            if (header.getInt(0) != SEGMENT_MAGIC || bodyLength <= 0 || bodyStart + bodyLength + 8 > size) break;
+
+            CRC32 checksum = new CRC32();
+            for (long offset = bodyStart; offset < bodyStart + bodyLength; ) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), bodyStart + bodyLength - offset));
+                int read = channel.read(buffer, offset);
+                if (read < 0) throw new EOFException();
+                offset += read;
+                checksum.update(buffer.flip());
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            channel.read(trailer, bodyStart + bodyLength);
+            if (trailer.getLong(0) != checksum.getValue()) break;
+            position = bodyStart + bodyLength + 8;
+        }
+        return position;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't close checkpoint.", e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing more can be done about it.
+        }
+    }
+}
\ No newline at end of file
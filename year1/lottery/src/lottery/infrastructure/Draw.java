@@ -1,5 +1,6 @@
 package lottery.infrastructure;
 
+import lottery.report.ReportSink;
 import lottery.ticket.SixNumbers;
 
 public class Draw {
@@ -12,16 +13,33 @@ public class Draw {
     private long[] prizes;
 
     public Draw(int drawNumber) {
+        this(drawNumber, SixNumbers.random());
+    }
+
+    public Draw(int drawNumber, SixNumbers numbers) {
         this.drawNumber = drawNumber;
-        this.numbers = SixNumbers.random();
+        this.numbers = numbers;
         this.hitGrades = new int[4];
         this.gradePools = new long[4];
         this.prizes = new long[4];
     }
 
+    Draw(int drawNumber, SixNumbers numbers, int[] hitGrades, long[] gradePools, long[] prizes) {
+        this.drawNumber = drawNumber;
+        this.numbers = numbers;
+        this.hitGrades = hitGrades;
+        this.gradePools = gradePools;
+        this.prizes = prizes;
+    }
+
     public void registerHit(int grade) {
         hitGrades[grade - 1]++;
     }
+    public void registerHits(GradeCounts counts) {
+        for (int grade = 1; grade <= 4; grade++) {
+            hitGrades[grade - 1] += counts.count(grade);
+        }
+    }
 
     public int drawNumber() {
         return drawNumber;
@@ -39,6 +57,9 @@ public class Draw {
     public long[] prizes() {
         return prizes.clone();
     }
+    public long prize(int grade) {
+        return prizes[grade - 1];
+    }
 
     public void setGradePools(long[] puleStopni) {
         this.gradePools = puleStopni.clone();
@@ -47,6 +68,11 @@ public class Draw {
         this.prizes = nagrody.clone();
     }
 
+    // Hands over the arrays themselves, sinks only read them.
+    void report(ReportSink sink) {
+        sink.draw(drawNumber, numbers.mask(), hitGrades, gradePools, prizes);
+    }
+
     @Override
     public String toString() {
         return "Draw no. " + drawNumber + "\nResults: " + numbers;
@@ -0,0 +1,7 @@
+package lottery.infrastructure;
+
+public enum DrawEvaluation {
+    TICKET_SCAN,    // Every retailer checks every ticket it sold against the draw.
+    AGGREGATED,     // Bets are tallied per draw at sale time, only distinct bets are checked.
+    SAMPLED         // Quick picks get no numbers, their wins per draw are sampled and handed out at claim time.
+}
\ No newline at end of file
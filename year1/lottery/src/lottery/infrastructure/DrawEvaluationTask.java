@@ -0,0 +1,68 @@
+package lottery.infrastructure;
+
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+class DrawEvaluationTask extends RecursiveTask<GradeCounts> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int TICKETS_PER_CHUNK = 1 << 14;
+
+    private final List<Retailer> retailers;
+    private final Draw draw;
+
+    DrawEvaluationTask(List<Retailer> retailers, Draw draw) {
+        this.retailers = retailers;
+        this.draw = draw;
+    }
+
+    @Override
+    protected GradeCounts compute() {
+        if (retailers.isEmpty()) return new GradeCounts();
+        if (retailers.size() > 1) {
+            int half = retailers.size() / 2;
+            DrawEvaluationTask left = new DrawEvaluationTask(retailers.subList(0, half), draw);
+            DrawEvaluationTask right = new DrawEvaluationTask(retailers.subList(half, retailers.size()), draw);
+            left.fork();
+            return right.compute().add(left.join());
+        }
+
+        Retailer retailer = retailers.get(0);
+        if (retailer.isTallied() || retailer.activeTicketCount() <= TICKETS_PER_CHUNK) {
+            return retailer.countDrawResults(draw);
+        }
+        long start = System.nanoTime();
+        GradeCounts counts = new TicketChunkTask(retailer, 0, retailer.activeTicketCount(), draw).compute();
+        retailer.finishDraw(draw, counts);
+        retailer.headquarters().metrics().calculateDrawResults().recordSince(start);
+        return counts;
+    }
+
+    private static class TicketChunkTask extends RecursiveTask<GradeCounts> {
+
+        private static final long serialVersionUID = 1L;
+        private final Retailer retailer;
+        private final int from;
+        private final int to;
+        private final Draw draw;
+
+        private TicketChunkTask(Retailer retailer, int from, int to, Draw draw) {
+            this.retailer = retailer;
+            this.from = from;
+            this.to = to;
+            this.draw = draw;
+        }
+
+        @Override
+        protected GradeCounts compute() {
+            if (to - from > TICKETS_PER_CHUNK) {
+                int middle = (from + to) >>> 1;
+                TicketChunkTask left = new TicketChunkTask(retailer, from, middle, draw);
+                TicketChunkTask right = new TicketChunkTask(retailer, middle, to, draw);
+                left.fork();
+                return right.compute().add(left.join());
+            }
+            return retailer.countDrawResults(draw, from, to);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadDataException;
+import lottery.report.ReportSink;
+import lottery.ticket.SixNumbers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+// Append-only log of evaluated draws, one fixed-size record per draw, in direct or memory-mapped buffers.
+// A draw is read straight from its offset, so past draws take no heap and a mapped file outlives the process.
+class DrawHistory implements AutoCloseable {
+
+    private static final int MAGIC = 0x4C4F5444;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SIZE_OFFSET = 8;
+
+    // Record layout: draw number, number mask, then four hit counts, grade pools and prizes.
+    private static final int RECORD_SIZE = 96;
+    private static final int MASK_OFFSET = 8;
+    private static final int HITS_OFFSET = 16;
+    private static final int POOLS_OFFSET = 32;
+    private static final int PRIZES_OFFSET = 64;
+
+    private static final int RECORDS_PER_CHUNK = 4096;
+    private static final int CHUNK_SIZE = RECORD_SIZE * RECORDS_PER_CHUNK;
+
+    private final FileChannel channel; // Null when the history is only kept in memory.
+    private final MappedByteBuffer header;
+    private volatile ByteBuffer[] chunks;
+    private volatile int size;
+
+    DrawHistory() {
+        this.channel = null;
+        this.header = null;
+        this.chunks = new ByteBuffer[0];
+        this.size = 0;
+    }
+
+    private DrawHistory(FileChannel channel) throws IOException {
+        this.channel = channel;
+        boolean created = channel.size() == 0;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        if (created) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(SIZE_OFFSET, 0);
+        } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new BadDataException("Not a draw history file.");
+        }
+
+        this.size = header.getInt(SIZE_OFFSET);
+        this.chunks = new ByteBuffer[(size + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = mapChunk(i);
+        }
+    }
+
+    static DrawHistory open(Path path) {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            return new DrawHistory(channel);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException("Can't open draw history " + path + ".", e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    private ByteBuffer mapChunk(int index) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) index * CHUNK_SIZE, CHUNK_SIZE);
+    }
+
+    // Only the thread evaluating draws appends, readers see a record once size says it's there.
+    void append(Draw draw) {
+        if (draw.drawNumber() != size + 1) throw new BadDataException("Draws have to be appended in order.");
+
+        int index = size;
+        if (index / RECORDS_PER_CHUNK == chunks.length) addChunk();
+        ByteBuffer chunk = chunks[index / RECORDS_PER_CHUNK];
+        int offset = (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+
+        int[] hitGrades = draw.hitGrades();
+        long[] gradePools = draw.gradePools();
+        long[] prizes = draw.prizes();
+        chunk.putInt(offset, draw.drawNumber());
+        chunk.putLong(offset + MASK_OFFSET, draw.numbers().mask());
+        for (int i = 0; i < 4; i++) {
+            chunk.putInt(offset + HITS_OFFSET + 4 * i, hitGrades[i]);
+            chunk.putLong(offset + POOLS_OFFSET + 8 * i, gradePools[i]);
+            chunk.putLong(offset + PRIZES_OFFSET + 8 * i, prizes[i]);
+        }
+
+        if (header != null) header.putInt(SIZE_OFFSET, index + 1);
+        size = index + 1;
+    }
+
+    private void addChunk() {
+        ByteBuffer chunk;
+        try {
+            chunk = channel == null ? ByteBuffer.allocateDirect(CHUNK_SIZE) : mapChunk(chunks.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't grow draw history.", e);
+        }
+        ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = chunk;
+        chunks = grown;
+    }
+
+    private ByteBuffer chunkOf(int drawNumber) {
+        Objects.checkIndex(drawNumber - 1, size);
+        return chunks[(drawNumber - 1) / RECORDS_PER_CHUNK];
+    }
+    private static int offsetOf(int drawNumber) {
+        return ((drawNumber - 1) % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+
+    long numbersMask(int drawNumber) {
+        return chunkOf(drawNumber).getLong(offsetOf(drawNumber) + MASK_OFFSET);
+    }
+
+    long prize(int drawNumber, int grade) {
+        return chunkOf(drawNumber).getLong(offsetOf(drawNumber) + PRIZES_OFFSET + 8 * (grade - 1));
+    }
+
+    Draw draw(int drawNumber) {
+        ByteBuffer chunk = chunkOf(drawNumber);
+        int offset = offsetOf(drawNumber);
+        int[] hitGrades = new int[4];
+        long[] gradePools = new long[4];
+        long[] prizes = new long[4];
+        for (int i = 0; i < 4; i++) {
+            hitGrades[i] = chunk.getInt(offset + HITS_OFFSET + 4 * i);
+            gradePools[i] = chunk.getLong(offset + POOLS_OFFSET + 8 * i);
+            prizes[i] = chunk.getLong(offset + PRIZES_OFFSET + 8 * i);
+        }
+        return new Draw(drawNumber, new SixNumbers(chunk.getLong(offset + MASK_OFFSET)), hitGrades, gradePools, prizes);
+    }
+
+    // Only one draw at a time is read back.
+    void forEach(Consumer<Draw> action) {
+        int count = size;
+        for (int drawNumber = 1; drawNumber <= count; drawNumber++) {
+            action.accept(draw(drawNumber));
+        }
+    }
+
+    // Straight from the records into arrays reused for every draw, no Draw is built.
+    void report(ReportSink sink) {
+        int[] hitGrades = new int[4];
+        long[] gradePools = new long[4];
+        long[] prizes = new long[4];
+        int count = size;
+        for (int drawNumber = 1; drawNumber <= count; drawNumber++) {
+            ByteBuffer chunk = chunkOf(drawNumber);
+            int offset = offsetOf(drawNumber);
+            for (int i = 0; i < 4; i++) {
+                hitGrades[i] = chunk.getInt(offset + HITS_OFFSET + 4 * i);
+                gradePools[i] = chunk.getLong(offset + POOLS_OFFSET + 8 * i);
+                prizes[i] = chunk.getLong(offset + PRIZES_OFFSET + 8 * i);
+            }
+            sink.draw(drawNumber, chunk.getLong(offset + MASK_OFFSET), hitGrades, gradePools, prizes);
+            sink.separator();
+        }
+    }
+
+    List<Draw> draws() {
+        List<Draw> draws = new ArrayList<>(size);
+        forEach(draws::add);
+        return draws;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) return;
+        header.force();
+        for (ByteBuffer chunk : chunks) {
+            ((MappedByteBuffer) chunk).force();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't close draw history.", e);
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing more can be done about it.
+        }
+    }
+}
\ No newline at end of file
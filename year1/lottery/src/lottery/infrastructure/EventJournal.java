@@ -0,0 +1,219 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadDataException;
+import lottery.ticket.Ticket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Append-only audit trail of sales, draws, payouts and direct money moves, in fixed 40-byte records.
+// Callers only copy their event into a ring; a background writer takes everything published so far
+// and writes it with one call, so many events share each write and each fsync.
+public class EventJournal implements AutoCloseable {
+
+    static final int MAGIC = 0x4C4F544A;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_FIELDS = 5;
+    static final int RECORD_SIZE = RECORD_FIELDS * 8;
+
+    // Record: type, then two ints and three longs whose meaning depends on the type.
+    // Payouts carry the subsidy the ledger took for them, replay doesn't work it out again.
+    static final int SALE = 1;          // ticket number, retailer number, price, first draw << 8 | draw count, -
+    static final int DRAW = 2;          // draw number, -, number mask, rollover after the draw, -
+    static final int PRIZE = 3;         // draw number, grade, prize, tax, subsidy
+    static final int MONEY_IN = 4;      // -, -, amount, -, -
+    static final int MONEY_OUT = 5;     // -, -, amount, -, subsidy
+    static final int BALANCE_SET = 6;   // -, -, amount, -, -
+    static final int TAX = 7;           // -, -, amount, -, -
+    static final int SUBSIDY = 8;       // -, -, amount, -, -
+    static final int OPENING = 9;       // -, -, balance, rollover, -; followed by TAX and SUBSIDY with the totals
+    static final int RESET_HEADQUARTERS = 10;
+    static final int RESET_BUDGET = 11;
+
+    // An idle writer sleeps longer and longer up to the maximum, a full ring wakes it up at once.
+    private static final long MIN_IDLE_PARK_NANOS = 50_000;
+    private static final long MAX_IDLE_PARK_NANOS = 2_000_000;
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+
+    // Slot i holds sequence s when published.get(i) == s; its fields are in slots[5i..5i+4].
+    private final int mask;
+    private final long[] slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed;
+    private volatile long written;
+
+    private final ByteBuffer batch;
+    private final Thread writer;
+    private volatile boolean running;
+    private volatile Throwable failure;
+    private long lastFsync;
+
+    public EventJournal(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1)
+            throw new BadDataException("Journal capacity has to be a power of two.");
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open journal " + path + ".", e);
+        }
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000;
+        this.mask = capacity - 1;
+        this.slots = new long[capacity * RECORD_FIELDS];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.claimed = new AtomicLong();
+        this.written = 0;
+        this.batch = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+        this.lastFsync = System.nanoTime();
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "lottery-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void recordSales(List<Ticket> tickets) {
+        long sequence = claim(tickets.size());
+        for (Ticket ticket : tickets) {
+            put(sequence++, SALE, ticket.ticketID().ticketNumber(), ticket.ticketID().retailerNumber(),
+                    ticket.ticketPrice(), (long) ticket.firstDrawNumber() << 8 | ticket.drawCount(), 0);
+        }
+    }
+    void recordDraw(int drawNumber, long numbersMask, long rollover) {
+        put(claim(1), DRAW, drawNumber, 0, numbersMask, rollover, 0);
+    }
+    void recordPrize(int drawNumber, int grade, long prize, long tax, long subsidy) {
+        put(claim(1), PRIZE, drawNumber, grade, prize, tax, subsidy);
+    }
+    void recordMoney(int type, long amount) {
+        put(claim(1), type, 0, 0, amount, 0, 0);
+    }
+    void recordMoneyOut(long amount, long subsidy) {
+        put(claim(1), MONEY_OUT, 0, 0, amount, 0, subsidy);
+    }
+    // Money the ledger already had, so a journal opened mid-run still replays to the right totals.
+    void recordOpening(LedgerSnapshot totals) {
+        long sequence = claim(3);
+        put(sequence, OPENING, 0, 0, totals.balance(), totals.rollover(), 0);
+        put(sequence + 1, TAX, 0, 0, totals.taxIncome(), 0, 0);
+        put(sequence + 2, SUBSIDY, 0, 0, totals.subsidies(), 0, 0);
+    }
+
+    // Waits while the ring is full, so a slow disk slows the simulation down instead of losing events.
+    private long claim(int count) {
+        if (count > mask + 1) throw new BadDataException("More events at once than the journal can hold.");
+        long sequence = claimed.getAndAdd(count);
+        while (sequence + count - written > mask + 1) {
+            checkFailure();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(1_000);
+        }
+        return sequence;
+    }
+
+    private void put(long sequence, int type, int first, int second, long third, long fourth, long fifth) {
+        int slot = (int) (sequence & mask);
+        int start = slot * RECORD_FIELDS;
+        slots[start] = type;
+        slots[start + 1] = (long) first << 32 | (second & 0xFFFFFFFFL);
+        slots[start + 2] = third;
+        slots[start + 3] = fourth;
+        slots[start + 4] = fifth;
+        published.set(slot, sequence);
+    }
+
+    private void writeLoop() {
+        long idlePark = MIN_IDLE_PARK_NANOS;
+        try {
+            while (running || written < claimed.get()) {
+                long end = written;
+                while (published.get((int) (end & mask)) == end && end - written <= mask) {
+                    end++;
+                }
+                if (end == written) {
+                    LockSupport.parkNanos(idlePark);
+                    idlePark = Math.min(idlePark * 2, MAX_IDLE_PARK_NANOS);
+                    continue;
+                }
+                writeBatch(written, end);
+                written = end;
+                idlePark = MIN_IDLE_PARK_NANOS;
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private void writeBatch(long from, long to) throws IOException {
+        batch.clear();
+        for (long sequence = from; sequence < to; sequence++) {
+            int start = (int) (sequence & mask) * RECORD_FIELDS;
+            for (int field = 0; field < RECORD_FIELDS; field++) {
+                batch.putLong(slots[start + field]);
+            }
+        }
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+
+        long now = System.nanoTime();
+        if (fsyncPolicy == FsyncPolicy.EVERY_BATCH
+                || (fsyncPolicy == FsyncPolicy.PERIODIC && now - lastFsync >= fsyncIntervalNanos)) {
+            channel.force(false);
+            lastFsync = now;
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) throw new IllegalStateException("Journal writer failed.", failure);
+    }
+
+    // Returns once every event recorded so far is in the file.
+    public void flush() {
+        long target = claimed.get();
+        while (written < target) {
+            checkFailure();
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(MIN_IDLE_PARK_NANOS);
+        }
+    }
+
+    public long eventCount() {
+        return claimed.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't close journal.", e);
+        }
+        checkFailure();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package lottery.infrastructure;
+
+public enum FsyncPolicy {
+    NEVER,          // Batches are handed to the OS, which writes them out when it likes.
+    EVERY_BATCH,    // Every batch is forced to disk before its slots are reused.
+    PERIODIC        // Forced to disk when the configured interval has passed since the last time.
+}
\ No newline at end of file
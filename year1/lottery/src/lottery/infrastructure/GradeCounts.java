@@ -0,0 +1,76 @@
+package lottery.infrastructure;
+
+import java.util.Arrays;
+
+public class GradeCounts {
+
+    private final int[] counts;
+
+    // Winning rows of a retailer's ticket store, collected so the retailer can book them after the draw.
+    private int[] winRows;
+    private byte[] winGrades;
+    private int winCount;
+
+    public GradeCounts() {
+        this.counts = new int[4];
+        this.winRows = new int[0];
+        this.winGrades = new byte[0];
+        this.winCount = 0;
+    }
+
+    public void record(int grade) {
+        counts[grade - 1]++;
+    }
+    public void record(int grade, int count) {
+        counts[grade - 1] += count;
+    }
+
+    void recordWin(int row, int grade) {
+        record(grade);
+        appendWin(row, grade);
+    }
+
+    private void appendWin(int row, int grade) {
+        if (winCount == winRows.length) {
+            int capacity = Math.max(16, winCount * 2);
+            winRows = Arrays.copyOf(winRows, capacity);
+            winGrades = Arrays.copyOf(winGrades, capacity);
+        }
+        winRows[winCount] = row;
+        winGrades[winCount] = (byte) grade;
+        winCount++;
+    }
+
+    public GradeCounts add(GradeCounts other) {
+        for (int i = 0; i < 4; i++) {
+            counts[i] += other.counts[i];
+        }
+        for (int i = 0; i < other.winCount; i++) {
+            appendWin(other.winRows[i], other.winGrades[i]);
+        }
+        return this;
+    }
+
+    void clearWins() {
+        winRows = new int[0];
+        winGrades = new byte[0];
+        winCount = 0;
+    }
+
+    int winCount() {
+        return winCount;
+    }
+    int winRow(int index) {
+        return winRows[index];
+    }
+    int winGrade(int index) {
+        return winGrades[index];
+    }
+
+    public int count(int grade) {
+        return counts[grade - 1];
+    }
+    public int[] counts() {
+        return counts.clone();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadDataException;
+import lottery.utility.BinaryInput;
+import lottery.utility.Formatter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Rebuilds the money of the headquarters and the state budget from an event journal alone.
+// Payouts come with the subsidy the ledger took, so sales and payouts add up the same in any order.
+public class JournalReplay {
+
+    public record Result(LedgerSnapshot totals, long sales, int draws, long prizes, long events) {
+    }
+
+    public static Result replay(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // A record cut short by a crash was never complete, it's left out.
+            long events = (channel.size() - EventJournal.HEADER_SIZE) / EventJournal.RECORD_SIZE;
+            BinaryInput in = new BinaryInput(channel);
+            if (events < 0 || in.getInt() != EventJournal.MAGIC || in.getInt() != EventJournal.VERSION)
+                throw new BadDataException(path + " isn't an event journal.");
+
+            long balance = 0;
+            long rollover = 0;
+            long taxIncome = 0;
+            long subsidies = 0;
+            long sales = 0;
+            int draws = 0;
+            long prizes = 0;
+            for (long i = 0; i < events; i++) {
+                int type = (int) in.getLong();
+                in.getLong(); // Ticket, draw and retailer numbers don't change the totals.
+                long amount = in.getLong();
+                long extra = in.getLong();
+                long subsidy = in.getLong();
+                switch (type) {
+                    case EventJournal.SALE -> {
+                        balance += amount * 4 / 5;
+                        taxIncome += amount / 5;
+                        sales++;
+                    }
+                    case EventJournal.DRAW -> {
+                        rollover = extra;
+                        draws++;
+                    }
+                    case EventJournal.PRIZE, EventJournal.MONEY_OUT -> {
+                        balance += subsidy - amount;
+                        subsidies += subsidy;
+                        if (type == EventJournal.PRIZE) {
+                            taxIncome += extra;
+                            prizes++;
+                        }
+                    }
+                    case EventJournal.MONEY_IN -> balance += amount;
+                    case EventJournal.BALANCE_SET -> balance = amount;
+                    case EventJournal.TAX -> taxIncome += amount;
+                    case EventJournal.SUBSIDY -> subsidies += amount;
+                    case EventJournal.OPENING -> {
+                        balance = amount;
+                        rollover = extra;
+                    }
+                    case EventJournal.RESET_HEADQUARTERS -> {
+                        balance = 0;
+                        rollover = 0;
+                    }
+                    case EventJournal.RESET_BUDGET -> {
+                        taxIncome = 0;
+                        subsidies = 0;
+                    }
+                    default -> throw new BadDataException("Unknown event type " + type + " in " + path + ".");
+                }
+            }
+            return new Result(new LedgerSnapshot(balance, rollover, taxIncome, subsidies), sales, draws, prizes,
+                    events);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read journal " + path + ".", e);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 1) throw new BadDataException("Usage: JournalReplay <journal file>");
+
+        Result result = replay(Path.of(args[0]));
+        LedgerSnapshot totals = result.totals();
+        System.out.println(result.events() + " events: " + result.sales() + " tickets sold, " + result.draws()
+                + " draws, " + result.prizes() + " prizes paid.");
+        System.out.println("Lottery headquarters have " + Formatter.centsToString(totals.balance()));
+        System.out.println("Rollover: " + Formatter.centsToString(totals.rollover()));
+        System.out.println("The state received " + Formatter.centsToString(totals.taxIncome())
+                + "\nThe state gave the lottery headquarters " + Formatter.centsToString(totals.subsidies())
+                + " in subsidies.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package lottery.infrastructure;
+
+// Money of the headquarters and the state budget as it was at a single moment.
+public record LedgerSnapshot(long balance, long rollover, long taxIncome, long subsidies) {
+}
\ No newline at end of file
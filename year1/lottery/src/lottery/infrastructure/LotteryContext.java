@@ -0,0 +1,71 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadBehaviourException;
+import lottery.metrics.MetricsRegistry;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// One whole lottery: headquarters, state budget, retailers and the history of draws.
+// Separate contexts share nothing, so simulations can run side by side in one JVM.
+public class LotteryContext {
+
+    private static final int JOURNAL_CAPACITY = 1 << 16;
+
+    private final LotteryHeadquarters headquarters;
+    private final StateBudget stateBudget;
+    private final MoneyLedger ledger;
+    private final MetricsRegistry metrics;
+
+    public LotteryContext() {
+        this.ledger = new MoneyLedger();
+        this.metrics = new MetricsRegistry();
+        this.headquarters = new LotteryHeadquarters(ledger, metrics);
+        this.stateBudget = new StateBudget(ledger);
+    }
+
+    private static class Holder {
+        private static final LotteryContext GLOBAL = new LotteryContext();
+    }
+    // The context behind LotteryHeadquarters.getInstance() and StateBudget.getInstance().
+    public static LotteryContext global() {
+        return Holder.GLOBAL;
+    }
+
+    public void reset() {
+        headquarters.reset();
+        stateBudget.reset();
+        metrics.reset();
+    }
+
+    // From now on every sale, draw, payout and direct money move is also appended to the journal.
+    public EventJournal openJournal(Path path, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        if (ledger.journal() != null) throw new BadBehaviourException("The journal is already open.");
+        EventJournal journal = new EventJournal(path, fsyncPolicy, fsyncIntervalMillis, JOURNAL_CAPACITY);
+        ledger.attachJournal(journal);
+        return journal;
+    }
+
+    public void closeJournal() {
+        EventJournal journal = ledger.journal();
+        if (journal == null) return;
+        ledger.attachJournal(null);
+        journal.close();
+    }
+
+    public LotteryHeadquarters headquarters() {
+        return headquarters;
+    }
+    public StateBudget stateBudget() {
+        return stateBudget;
+    }
+    public MetricsRegistry metrics() {
+        return metrics;
+    }
+    public List<Retailer> retailers() {
+        return headquarters.retailers();
+    }
+    public List<Draw> draws() {
+        return headquarters.draws();
+    }
+}
\ No newline at end of file
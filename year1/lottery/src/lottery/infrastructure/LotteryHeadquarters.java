@@ -1,14 +1,27 @@
 package lottery.infrastructure;
 
-import lottery.utility.Formatter;
 import lottery.player.Player;
 import lottery.ticket.Ticket;
 import lottery.ticket.SixNumbers;
 import lottery.exceptions.BadDataException;
-
+import lottery.exceptions.BadBehaviourException;
+import lottery.jfr.DrawEvaluatedEvent;
+import lottery.jfr.PrizeClaimedEvent;
+import lottery.metrics.MetricsRegistry;
+import lottery.report.ReportSink;
+import lottery.report.TextReportSink;
+import lottery.utility.RandomSource;
+import lottery.utility.BinaryInput;
+import lottery.utility.BinaryOutput;
+
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 public class LotteryHeadquarters {
 
@@ -21,57 +34,216 @@ public class LotteryHeadquarters {
     private static final long MINIMUM_TAXED_PRIZE = 2280_00L;
 
     private int lastDrawNumber;
-    private final List<Draw> draws;
+    private DrawHistory drawHistory;
     private final List<Retailer> retailers;
+    private final List<LedgerSnapshot> ledgerSnapshots;
+    private final List<QuickPickUrn[]> quickPickUrns; // Per draw, one urn for each retailer that sold quick picks.
 
-    private long balance;
-    private long rollover;
-    private final long[] nextDrawsIncome;
+    // Ticket sales may run on many threads at once, everything they touch here is striped or atomic.
+    private final MoneyLedger ledger;
+    private final MetricsRegistry metrics;
+    private final LongAdder[] nextDrawsIncome;
 
-    private int lastTicketNumber;
+    private final AtomicInteger lastTicketNumber;
     private int lastRetailerNumber;
 
-    private LotteryHeadquarters() {
-        balance = 0;
+    private DrawEvaluation drawEvaluation;
+    private ForkJoinPool evaluationPool;
+    private ForkJoinPool actorPool;
+    private int mailboxCapacity;
+    private SplittableGenerator random;
+
+    LotteryHeadquarters(MoneyLedger ledger, MetricsRegistry metrics) {
+        this.ledger = ledger;
+        this.metrics = metrics;
         lastDrawNumber = 0;
-        rollover = 0;
-        lastTicketNumber = 0;
+        lastTicketNumber = new AtomicInteger();
         lastRetailerNumber = 0;
-        nextDrawsIncome = new long[10];
-        draws = new ArrayList<>();
+        drawEvaluation = DrawEvaluation.TICKET_SCAN;
+        nextDrawsIncome = new LongAdder[10];
+        for (int i = 0; i < nextDrawsIncome.length; i++) {
+            nextDrawsIncome[i] = new LongAdder();
+        }
+        drawHistory = new DrawHistory();
         retailers = new ArrayList<>();
+        ledgerSnapshots = new ArrayList<>();
+        quickPickUrns = new ArrayList<>();
+        random = RandomSource.split();
     }
-    
-    private static class Holder {
-        private static final LotteryHeadquarters INSTANCE = new LotteryHeadquarters();
-    }
+
     public static LotteryHeadquarters getInstance() {
-        return Holder.INSTANCE;
+        return LotteryContext.global().headquarters();
     }
 
     public void drawNumbers() {
-        long budget = nextDrawsIncome[(++lastDrawNumber) % 10]
+        long start = System.nanoTime();
+        DrawEvaluatedEvent event = new DrawEvaluatedEvent();
+        event.begin();
+        awaitRetailers();
+        // Counted only for a recording, scanned tickets are retired by the evaluation.
+        long ticketsScanned = 0;
+        if (event.isEnabled()) {
+            for (Retailer retailer : retailers) {
+                ticketsScanned += retailer.activeTicketCount();
+            }
+        }
+        long budget = nextDrawsIncome[(++lastDrawNumber) % 10].sum()
                 * INCOME_PERCENTAGE_FOR_PRIZES / 100L;
 
-        Draw draw = new Draw(lastDrawNumber);
-        for (Retailer retailer : retailers) {
-            retailer.calculateDrawResults(draw);
+        Draw draw = new Draw(lastDrawNumber, SixNumbers.random(random));
+        if (actorPool != null) {
+            draw.registerHits(evaluateOnActors(draw));
+        } else if (evaluationPool == null) {
+            for (Retailer retailer : retailers) {
+                retailer.calculateDrawResults(draw);
+            }
+        } else {
+            draw.registerHits(evaluationPool.invoke(new DrawEvaluationTask(retailers, draw)));
         }
+        quickPickUrns.add(sampleQuickPicks(draw));
 
         long[] gradePools = calculateGradePools(budget, draw.hitGrades());
         long[] prizes = calculatePrizes(gradePools, draw.hitGrades());
         draw.setPrizes(prizes);
         draw.setGradePools(gradePools);
 
-        nextDrawsIncome[lastDrawNumber % 10] = 0;
-        draws.add(draw);
+        nextDrawsIncome[lastDrawNumber % 10].reset();
+        drawHistory.append(draw);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordDraw(lastDrawNumber, draw.numbers().mask(), ledger.rollover());
+        metrics.drawNumbers().recordSince(start);
+        metrics.drawFinished(lastDrawNumber);
+        ledgerSnapshots.add(ledger.snapshot());
+        if (event.shouldCommit()) {
+            int[] hitGrades = draw.hitGrades();
+            event.drawNumber = lastDrawNumber;
+            event.evaluation = drawEvaluation().name();
+            event.ticketsScanned = ticketsScanned;
+            event.grade1 = hitGrades[0];
+            event.grade2 = hitGrades[1];
+            event.grade3 = hitGrades[2];
+            event.grade4 = hitGrades[3];
+            event.commit();
+        }
+    }
+
+    private GradeCounts evaluateOnActors(Draw draw) {
+        List<CompletableFuture<GradeCounts>> replies = new ArrayList<>(retailers.size());
+        for (Retailer retailer : retailers) {
+            replies.add(retailer.actor().evaluate(draw));
+        }
+        GradeCounts counts = new GradeCounts();
+        for (CompletableFuture<GradeCounts> reply : replies) {
+            counts.add(reply.join());
+        }
+        return counts;
+    }
+
+    // Every retailer gets an urn of its own, sampled in retailer order from the headquarters' stream,
+    // so only the order of claims at one retailer decides who wins what.
+    private QuickPickUrn[] sampleQuickPicks(Draw draw) {
+        QuickPickUrn[] urns = null;
+        for (int i = 0; i < retailers.size(); i++) {
+            long quickPicks = retailers.get(i).takeQuickPickBets(draw.drawNumber());
+            if (quickPicks == 0) continue;
+            if (urns == null) urns = new QuickPickUrn[retailers.size()];
+            urns[i] = QuickPickUrn.sample(quickPicks, random);
+            draw.registerHits(urns[i].counts());
+        }
+        return urns;
+    }
+
+    int takeQuickPickGrade(int drawNumber, int retailerNumber) {
+        QuickPickUrn[] urns = quickPickUrns.get(drawNumber - 1);
+        if (urns == null || retailerNumber > urns.length || urns[retailerNumber - 1] == null) return 0;
+        return urns[retailerNumber - 1].takeGrade();
+    }
+
+    // Counters, money and the income ring in full, draws from the given one on, and the quick-pick wins
+    // not yet handed out. Quick picks of the coming draws are counted again from the restored tickets.
+    void writeCheckpoint(BinaryOutput out, int fromDrawNumber) {
+        out.putInt(lastDrawNumber);
+        out.putInt(lastTicketNumber.get());
+        out.putInt(drawEvaluation.ordinal());
+        LedgerSnapshot money = ledger.snapshot();
+        out.putLong(money.balance());
+        out.putLong(money.rollover());
+        out.putLong(money.taxIncome());
+        out.putLong(money.subsidies());
+        for (int i = 0; i < 10; i++) {
+            out.putLong(nextDrawsIncome[i].sum());
+        }
+
+        out.putInt(lastDrawNumber - fromDrawNumber);
+        for (int drawNumber = fromDrawNumber + 1; drawNumber <= lastDrawNumber; drawNumber++) {
+            Draw draw = getDraw(drawNumber);
+            out.putLong(draw.numbers().mask());
+            out.putInts(draw.hitGrades(), 0, 4);
+            out.putLongs(draw.gradePools());
+            out.putLongs(draw.prizes());
+            LedgerSnapshot snapshot = ledgerSnapshots.get(drawNumber - 1);
+            out.putLong(snapshot.balance());
+            out.putLong(snapshot.rollover());
+            out.putLong(snapshot.taxIncome());
+            out.putLong(snapshot.subsidies());
+        }
+
+        for (int i = 0; i < quickPickUrns.size(); i++) {
+            QuickPickUrn[] urns = quickPickUrns.get(i);
+            if (urns == null) continue;
+            for (int j = 0; j < urns.length; j++) {
+                if (urns[j] != null && urns[j].hasWinsLeft()) {
+                    out.putInt(i + 1);
+                    out.putInt(j + 1);
+                    urns[j].write(out);
+                }
+            }
+        }
+        out.putInt(0);
+    }
+
+    void readCheckpoint(BinaryInput in) {
+        int checkpointDrawNumber = in.getInt();
+        int checkpointTicketNumber = in.getInt();
+        drawEvaluation = DrawEvaluation.values()[in.getInt()];
+        ledger.restore(new LedgerSnapshot(in.getLong(), in.getLong(), in.getLong(), in.getLong()));
+        for (int i = 0; i < 10; i++) {
+            nextDrawsIncome[i].reset();
+            nextDrawsIncome[i].add(in.getLong());
+        }
+
+        int drawCount = in.getInt();
+        for (int i = 0; i < drawCount; i++) {
+            Draw draw = new Draw(lastDrawNumber + 1, new SixNumbers(in.getLong()), in.getInts(4), in.getLongs(4),
+                    in.getLongs(4));
+            drawHistory.append(draw);
+            ledgerSnapshots.add(new LedgerSnapshot(in.getLong(), in.getLong(), in.getLong(), in.getLong()));
+            quickPickUrns.add(null);
+            lastDrawNumber++;
+        }
+        if (lastDrawNumber != checkpointDrawNumber) throw new BadDataException("Checkpoint is missing draws.");
+        lastTicketNumber.set(checkpointTicketNumber);
+
+        for (int i = 0; i < quickPickUrns.size(); i++) {
+            quickPickUrns.set(i, null);
+        }
+        for (int drawNumber = in.getInt(); drawNumber != 0; drawNumber = in.getInt()) {
+            int retailerNumber = in.getInt();
+            if (drawNumber < 0 || drawNumber > lastDrawNumber
+                    || retailerNumber < 1 || retailerNumber > retailers.size())
+                throw new BadDataException("Checkpoint has quick-pick wins of an unknown draw or retailer.");
+            if (quickPickUrns.get(drawNumber - 1) == null) {
+                quickPickUrns.set(drawNumber - 1, new QuickPickUrn[retailers.size()]);
+            }
+            quickPickUrns.get(drawNumber - 1)[retailerNumber - 1] = QuickPickUrn.read(in, random);
+        }
     }
 
     private long[] calculateGradePools(long budget, int[] hitGrades) {
         long[] gradePools = new long[4];
 
         gradePools[0] = Math.max((budget * BUDGET_PERCENTAGE_FIRST_GRADE / 100), MINIMUM_FIRST_GRADE_PRIZE_POOL)
-                + rollover;
+                + ledger.rollover();
         gradePools[1] = budget * BUDGET_PERCENTAGE_SECOND_GRADE / 100;
         gradePools[3] = FOURTH_GRADE_PRIZE * hitGrades[3];
         long remainder = budget - (budget * BUDGET_PERCENTAGE_FIRST_GRADE / 100) - gradePools[1] - gradePools[3];
@@ -84,10 +256,10 @@ public class LotteryHeadquarters {
         long[] prizes = new long[4];
 
         if (hitGrades[0] == 0) {
-            rollover = gradePools[0];
+            ledger.setRollover(gradePools[0]);
         }   else {
             prizes[0] = gradePools[0] / hitGrades[0];
-            rollover = 0;
+            ledger.setRollover(0);
         }
         for (int i = 1; i < 4; i++) {
             if (hitGrades[i] != 0) {
@@ -105,99 +277,217 @@ public class LotteryHeadquarters {
         int hitCount = bet.hitCount(getNumbers(drawNumber));
         if (hitCount < 3) return;
 
-        long prize = getDraw(drawNumber).prizes()[prizeIndex(hitCount)];
-        loseMoney(prize);
+        givePrize(player, drawNumber, prizeGrade(hitCount));
+    }
+
+    public void givePrize(Player player, int drawNumber, int grade) {
+        if (drawNumber > lastDrawNumber) throw new BadDataException("This draw hasn't happened yet.");
 
-        if (prize >= MINIMUM_TAXED_PRIZE) {
-            StateBudget stateBudget = StateBudget.getInstance();
-            stateBudget.receiveTax(prize / 10); // Tax is 10%
-            prize = prize * 9 / 10;
+        long prize = drawHistory.prize(drawNumber, grade);
+        long tax = prize >= MINIMUM_TAXED_PRIZE ? prize / 10 : 0; // Tax is 10%
+        long subsidy = ledger.payOut(prize, tax);
+        if (subsidy > 0) metrics.recordSubsidy(subsidy);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordPrize(drawNumber, grade, prize, tax, subsidy);
+        PrizeClaimedEvent event = new PrizeClaimedEvent();
+        if (event.shouldCommit()) {
+            event.drawNumber = drawNumber;
+            event.grade = grade;
+            event.amount = prize;
+            event.taxWithheld = tax;
+            event.subsidy = subsidy;
+            event.subsidyTriggered = subsidy > 0;
+            event.commit();
         }
 
-        player.receiveAmount(prize);
+        // Winners have always been paid prize * 9 / 10, which can be a cent less than prize - tax.
+        player.receiveAmount(tax > 0 ? prize * 9 / 10 : prize);
     }
 
-    private int prizeIndex(int hitCount) {
-        return 6 - hitCount;
+    private int prizeGrade(int hitCount) {
+        return 7 - hitCount;
     }
 
     public void giveBalanceDetails() {
-        System.out.println("Lottery headquarters have " + Formatter.centsToString(balance));
+        ReportSink sink = new TextReportSink(System.out);
+        reportBalance(sink);
+        sink.flush();
     }
 
     public void printDrawResults(Draw draw) {
-        long[] gradePools = draw.gradePools();
-        long[] prizes = draw.prizes();
-        int[] hitGrades = draw.hitGrades();
-        String[] grades = new String[] {"I.   ", "II.  ", "III. ", "IV.  "};
-
-        System.out.println(draw);
-        System.out.println("Combined prize pools:");
-        for (int i = 0; i < 4; i++) {
-            System.out.println(grades[i] + Formatter.centsToString(gradePools[i]));
-        }
-        System.out.println("Number of winners:");
-        for (int i = 0; i < 4; i++) {
-            System.out.println(grades[i] + hitGrades[i]);
-        }
-        System.out.println("Prize amounts:");
-        for (int i = 0; i < 4; i++) {
-            if (prizes[i] == 0) {
-                System.out.println(grades[i] + "no hit");
-            } else {
-                System.out.println(grades[i] + Formatter.centsToString(prizes[i]));
-            }
-        }
+        ReportSink sink = new TextReportSink(System.out);
+        draw.report(sink);
+        sink.flush();
     }
 
     public void printResultsOfAllDraws() {
-        for (Draw draw : draws) {
-            printDrawResults(draw);
-            System.out.println();
-        }
+        ReportSink sink = new TextReportSink(System.out);
+        reportDraws(sink);
+        sink.flush();
+    }
+
+    // Every draw so far, each followed by a separator, read straight from the history.
+    public void reportDraws(ReportSink sink) {
+        drawHistory.report(sink);
+    }
+
+    public void reportBalance(ReportSink sink) {
+        sink.headquartersBalance(balance());
     }
 
     public void receiveMoneyForTicketSale(Ticket ticket) {
-        long income = subtractTax(ticket.ticketPrice());
-        int firstDrawNumber = ticket.firstDrawNumber();
-        int drawCount = ticket.drawCount();
-        for (int i = 0; i < drawCount; i++) {
-            nextDrawsIncome[(firstDrawNumber + i) % 10] += income / drawCount;
-        }
-        getMoney(income);
+        receiveMoneyForTicketSales(List.of(ticket));
     }
 
-    private long subtractTax(long amount) {
-        StateBudget stateBudget = StateBudget.getInstance();
-        stateBudget.receiveTax(amount / 5); // Tax is 20%
-        return amount * 4 / 5;
+    // Every ticket is taxed and split between its draws on its own, so the rounding matches single sales.
+    public void receiveMoneyForTicketSales(List<Ticket> tickets) {
+        long[] drawsIncome = new long[10];
+        long income = 0;
+        long tax = 0;
+        for (Ticket ticket : tickets) {
+            long ticketIncome = ticket.ticketPrice() * 4 / 5;
+            tax += ticket.ticketPrice() / 5; // Tax is 20%
+            income += ticketIncome;
+
+            int firstDrawNumber = ticket.firstDrawNumber();
+            int drawCount = ticket.drawCount();
+            for (int i = 0; i < drawCount; i++) {
+                drawsIncome[(firstDrawNumber + i) % 10] += ticketIncome / drawCount;
+            }
+        }
+
+        for (int i = 0; i < 10; i++) {
+            if (drawsIncome[i] != 0) nextDrawsIncome[i].add(drawsIncome[i]);
+        }
+        ledger.recordSales(income, tax);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordSales(tickets);
     }
 
     public void reset() {
-        balance = 0;
+        stopRetailerActors();
+        ledger.resetHeadquarters();
         lastDrawNumber = 0;
-        rollover = 0;
-        lastTicketNumber = 0;
+        lastTicketNumber.set(0);
         lastRetailerNumber = 0;
-        Arrays.fill(nextDrawsIncome, 0);
-        draws.clear();
+        drawEvaluation = DrawEvaluation.TICKET_SCAN;
+        setEvaluationParallelism(1);
+        for (int i = 0; i < nextDrawsIncome.length; i++) {
+            nextDrawsIncome[i].reset();
+        }
+        random = RandomSource.split();
+        drawHistory.close(); // A mapped file is left as it is, the next lottery starts a history of its own.
+        drawHistory = new DrawHistory();
         retailers.clear();
+        ledgerSnapshots.clear();
+        quickPickUrns.clear();
     }
 
     public int lastTicketNumber() {
-        return lastTicketNumber;
+        return lastTicketNumber.get();
     }
     public void incrementLastTicketNumber() {
-        lastTicketNumber++;
+        lastTicketNumber.incrementAndGet();
+    }
+    public int reserveTicketNumbers(int count) {
+        if (count < 1) throw new BadDataException("At least one ticket number has to be reserved.");
+        return lastTicketNumber.getAndAdd(count) + 1;
+    }
+
+    public DrawEvaluation drawEvaluation() {
+        return drawEvaluation;
+    }
+    public void setDrawEvaluation(DrawEvaluation drawEvaluation) {
+        if (lastTicketNumber.get() != 0 && drawEvaluation != this.drawEvaluation)
+            throw new BadBehaviourException("Draw evaluation can't be changed once tickets have been sold.");
+        this.drawEvaluation = drawEvaluation;
+    }
+
+    public int evaluationParallelism() {
+        return evaluationPool == null ? 1 : evaluationPool.getParallelism();
+    }
+    public void setEvaluationParallelism(int parallelism) {
+        if (parallelism < 1) throw new BadDataException("Parallelism has to be at least 1.");
+        if (evaluationPool != null) {
+            evaluationPool.shutdown();
+            evaluationPool = null;
+        }
+        if (parallelism > 1) {
+            evaluationPool = new ForkJoinPool(parallelism);
+        }
+    }
+
+    // Every retailer gets an actor with a mailbox of the given size, all of them sharing one pool of threads.
+    public void startRetailerActors(int mailboxCapacity, int parallelism) {
+        if (mailboxCapacity < 1) throw new BadDataException("Mailbox capacity has to be at least 1.");
+        if (parallelism < 1) throw new BadDataException("Parallelism has to be at least 1.");
+        stopRetailerActors();
+
+        this.mailboxCapacity = mailboxCapacity;
+        actorPool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        for (Retailer retailer : retailers) {
+            retailer.attachActor(new RetailerActor(retailer, mailboxCapacity, actorPool));
+        }
+    }
+
+    public void stopRetailerActors() {
+        if (actorPool == null) return;
+        awaitRetailers();
+        for (Retailer retailer : retailers) {
+            retailer.attachActor(null);
+        }
+        actorPool.shutdown();
+        actorPool = null;
+    }
+
+    // Waits until every message sent to the actors so far has been handled.
+    public void awaitRetailers() {
+        if (actorPool == null) return;
+        List<CompletableFuture<Void>> barriers = new ArrayList<>(retailers.size());
+        for (Retailer retailer : retailers) {
+            barriers.add(retailer.actor().barrier());
+        }
+        for (CompletableFuture<Void> barrier : barriers) {
+            barrier.join();
+        }
+
+        for (Retailer retailer : retailers) {
+            RuntimeException failure = retailer.actor().takeFailure();
+            if (failure != null) throw failure;
+        }
+    }
+
+    public List<RetailerActor> retailerActors() {
+        List<RetailerActor> actors = new ArrayList<>();
+        for (Retailer retailer : retailers) {
+            if (retailer.actor() != null) actors.add(retailer.actor());
+        }
+        return actors;
     }
 
     public int lastDrawNumber() {
         return lastDrawNumber;
     }
+    // Reads every draw back from the history, prefer getDraw for single draws.
     public List<Draw> draws() {
-        return List.copyOf(draws);
+        return drawHistory.draws();
+    }
+
+    // Keeps the draw history in a memory-mapped file from now on. Every lottery needs a file of its own:
+    // money, tickets and retailers aren't part of the history, so a lottery can't go on from another one's draws.
+    public void openDrawHistory(Path path) {
+        if (lastDrawNumber != 0 || lastTicketNumber.get() != 0)
+            throw new BadBehaviourException("Draw history can only be opened before the lottery starts.");
+        DrawHistory opened = DrawHistory.open(path);
+        if (opened.size() != 0) {
+            opened.close();
+            throw new BadBehaviourException("Draw history " + path + " already holds another lottery's draws.");
+        }
+        drawHistory.close();
+        drawHistory = opened;
     }
 
+
     public int lastRetailerNumber() {
         return lastRetailerNumber;
     }
@@ -207,38 +497,62 @@ public class LotteryHeadquarters {
 
     public void addRetailer(Retailer retailer) {
         retailers.add(retailer);
+        if (actorPool != null) {
+            retailer.attachActor(new RetailerActor(retailer, mailboxCapacity, actorPool));
+        }
     }
     public Retailer getRetailer(int index) {
         return retailers.get(index);
     }
+    public List<Retailer> retailers() {
+        return List.copyOf(retailers);
+    }
 
     public SixNumbers getNumbers(int drawNumber) {
-        return draws.get(drawNumber - 1).numbers();
+        return new SixNumbers(drawHistory.numbersMask(drawNumber));
     }
     public Draw getDraw(int drawNumber) {
-        return draws.get(drawNumber - 1);
+        return drawHistory.draw(drawNumber);
+    }
+
+    public MetricsRegistry metrics() {
+        return metrics;
     }
 
     public long balance() {
-        return balance;
+        return ledger.balance();
     }
 
     public long rollover() {
-        return rollover;
+        return ledger.rollover();
+    }
+
+    // Balance, rollover, taxes and subsidies all taken at the same moment, sales don't have to stop.
+    public LedgerSnapshot ledgerSnapshot() {
+        return ledger.snapshot();
+    }
+    // Taken right after the draw was evaluated, before any of its prizes were paid.
+    public LedgerSnapshot ledgerSnapshot(int drawNumber) {
+        return ledgerSnapshots.get(drawNumber - 1);
     }
 
     public void setBalance(long amount) {
-        balance = amount;
+        ledger.setBalance(amount);
+        recordMoney(EventJournal.BALANCE_SET, amount);
     }
     public void getMoney(long amount) {
-        balance += amount;
+        ledger.recordSales(amount, 0);
+        recordMoney(EventJournal.MONEY_IN, amount);
     }
     public void loseMoney(long amount) {
-        balance -= amount;
-        if (balance < 0) {
-            StateBudget stateBudget = StateBudget.getInstance();
-            stateBudget.giveSubsidy(-balance);
-            balance = 0;
-        }
+        long subsidy = ledger.payOut(amount, 0);
+        if (subsidy > 0) metrics.recordSubsidy(subsidy);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordMoneyOut(amount, subsidy);
+    }
+
+    private void recordMoney(int type, long amount) {
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordMoney(type, amount);
     }
 }
\ No newline at end of file
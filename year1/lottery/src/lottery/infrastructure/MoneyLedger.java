@@ -0,0 +1,150 @@
+package lottery.infrastructure;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Money of the headquarters and the state budget.
+// Sales are credited to one of several stripes without locks, so sellers on different threads rarely meet;
+// payouts, subsidies, the rollover and snapshots go through one central cell, under the ledger's lock.
+// Every cell holds immutable totals replaced by compare-and-set, so a sale is moved to the central cell whole.
+class MoneyLedger {
+
+    private record Totals(long balance, long taxIncome, long subsidies, long rollover) {
+    }
+
+    private static final Totals ZERO = new Totals(0, 0, 0, 0);
+
+    private final AtomicReference<Totals> central;
+    private final AtomicReferenceArray<Totals> stripes;
+    private volatile EventJournal journal; // Null unless journaling was asked for.
+
+    MoneyLedger() {
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1);
+        central = new AtomicReference<>(ZERO);
+        stripes = new AtomicReferenceArray<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.set(i, ZERO);
+        }
+    }
+
+    void recordSales(long income, long tax) {
+        int stripe = (int) Thread.currentThread().getId();
+        while (true) {
+            int index = stripe & (stripes.length() - 1);
+            Totals totals = stripes.get(index);
+            Totals updated = new Totals(totals.balance() + income, totals.taxIncome() + tax, 0, 0);
+            if (stripes.compareAndSet(index, totals, updated)) return;
+            stripe++; // Someone else sells on this stripe, try the next one.
+        }
+    }
+
+    // The state covers whatever the balance can't, so it never goes below zero.
+    // Sales so far are folded into the central cell first, so the subsidy is exactly the shortfall.
+    // Returns the subsidy it took.
+    synchronized long payOut(long amount, long tax) {
+        foldStripes();
+        Totals totals = central.get();
+        long subsidy = Math.max(0, amount - totals.balance());
+        central.set(new Totals(totals.balance() - amount + subsidy, totals.taxIncome() + tax,
+                totals.subsidies() + subsidy, totals.rollover()));
+        return subsidy;
+    }
+
+    // Moves the stripes' sales to the central cell. Only under the lock, so nobody sees the money in between.
+    private void foldStripes() {
+        long folded = 0;
+        long foldedTax = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            Totals totals = stripes.get(i);
+            while (totals != ZERO) {
+                if (stripes.compareAndSet(i, totals, ZERO)) {
+                    folded += totals.balance();
+                    foldedTax += totals.taxIncome();
+                    break;
+                }
+                totals = stripes.get(i); // A sale landed meanwhile.
+            }
+        }
+        if (folded == 0 && foldedTax == 0) return;
+        Totals totals = central.get();
+        central.set(new Totals(totals.balance() + folded, totals.taxIncome() + foldedTax,
+                totals.subsidies(), totals.rollover()));
+    }
+
+    synchronized void giveSubsidy(long amount) {
+        central.updateAndGet(totals -> new Totals(totals.balance(), totals.taxIncome(),
+                totals.subsidies() + amount, totals.rollover()));
+    }
+
+    synchronized void setBalance(long amount) {
+        central.updateAndGet(totals -> new Totals(amount - stripeBalances(), totals.taxIncome(),
+                totals.subsidies(), totals.rollover()));
+    }
+
+    synchronized void setRollover(long rollover) {
+        central.updateAndGet(totals -> new Totals(totals.balance(), totals.taxIncome(), totals.subsidies(), rollover));
+    }
+
+    synchronized void restore(LedgerSnapshot snapshot) {
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.set(i, ZERO);
+        }
+        central.set(new Totals(snapshot.balance(), snapshot.taxIncome(), snapshot.subsidies(), snapshot.rollover()));
+    }
+
+    void attachJournal(EventJournal journal) {
+        if (journal != null) journal.recordOpening(snapshot());
+        this.journal = journal;
+    }
+    EventJournal journal() {
+        return journal;
+    }
+
+    synchronized void resetHeadquarters() {
+        if (journal != null) journal.recordMoney(EventJournal.RESET_HEADQUARTERS, 0);
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.updateAndGet(i, totals -> new Totals(0, totals.taxIncome(), 0, 0));
+        }
+        central.updateAndGet(totals -> new Totals(0, totals.taxIncome(), totals.subsidies(), 0));
+    }
+
+    synchronized void resetStateBudget() {
+        if (journal != null) journal.recordMoney(EventJournal.RESET_BUDGET, 0);
+        for (int i = 0; i < stripes.length(); i++) {
+            stripes.updateAndGet(i, totals -> new Totals(totals.balance(), 0, 0, 0));
+        }
+        central.updateAndGet(totals -> new Totals(totals.balance(), 0, 0, totals.rollover()));
+    }
+
+    private long stripeBalances() {
+        long balance = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            balance += stripes.get(i).balance();
+        }
+        return balance;
+    }
+
+    // Sales landing while the stripes are folded are either in the snapshot whole or not at all.
+    synchronized LedgerSnapshot snapshot() {
+        foldStripes();
+        Totals totals = central.get();
+        return new LedgerSnapshot(totals.balance(), totals.rollover(), totals.taxIncome(), totals.subsidies());
+    }
+
+    synchronized long balance() {
+        return central.get().balance() + stripeBalances();
+    }
+    long rollover() {
+        return central.get().rollover();
+    }
+    synchronized long taxIncome() {
+        long taxIncome = central.get().taxIncome();
+        for (int i = 0; i < stripes.length(); i++) {
+            taxIncome += stripes.get(i).taxIncome();
+        }
+        return taxIncome;
+    }
+    long subsidies() {
+        return central.get().subsidies();
+    }
+}
\ No newline at end of file
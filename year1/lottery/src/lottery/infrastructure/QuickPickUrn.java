@@ -0,0 +1,92 @@
+package lottery.infrastructure;
+
+import lottery.ticket.BetRanks;
+import lottery.utility.BinaryInput;
+import lottery.utility.BinaryOutput;
+import lottery.utility.Sampling;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+// Wins of one retailer's quick-pick bets in one draw. Only their number is sampled when the draw is evaluated,
+// every claimed bet then draws its grade out of what is left, so each sampled win goes to exactly one bet.
+class QuickPickUrn {
+
+    // Chance of a uniformly random bet hitting 6, 5, 4 and 3 numbers.
+    private static final double[] GRADE_PROBABILITIES = {
+            hitProbability(6), hitProbability(5), hitProbability(4), hitProbability(3)
+    };
+
+    private final long[] winsLeft;
+    private long betsLeft;
+    private final RandomGenerator random;
+
+    private QuickPickUrn(long[] wins, long betCount, RandomGenerator random) {
+        this.winsLeft = wins;
+        this.betsLeft = betCount;
+        this.random = random;
+    }
+
+    private static double hitProbability(int hitCount) {
+        return (double) binomial(6, hitCount) * binomial(43, 6 - hitCount) / BetRanks.RANK_COUNT;
+    }
+
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    // Grades are sampled one after another, each from the bets the previous ones didn't take.
+    // Claims draw from a stream split off the given one, so they don't depend on the thread that asks first.
+    static QuickPickUrn sample(long betCount, SplittableGenerator random) {
+        long[] wins = new long[4];
+        long remaining = betCount;
+        double remainingProbability = 1;
+        for (int i = 0; i < 4; i++) {
+            wins[i] = Sampling.binomial(random, remaining,
+                    Math.min(1, GRADE_PROBABILITIES[i] / remainingProbability));
+            remaining -= wins[i];
+            remainingProbability -= GRADE_PROBABILITIES[i];
+        }
+        return new QuickPickUrn(wins, betCount, random.split());
+    }
+
+    GradeCounts counts() {
+        GradeCounts counts = new GradeCounts();
+        for (int grade = 1; grade <= 4; grade++) {
+            counts.record(grade, (int) winsLeft[grade - 1]);
+        }
+        return counts;
+    }
+
+    synchronized boolean hasWinsLeft() {
+        return winsLeft[0] + winsLeft[1] + winsLeft[2] + winsLeft[3] > 0;
+    }
+
+    synchronized void write(BinaryOutput out) {
+        out.putLong(betsLeft);
+        out.putLongs(winsLeft);
+    }
+
+    static QuickPickUrn read(BinaryInput in, SplittableGenerator random) {
+        long betsLeft = in.getLong();
+        return new QuickPickUrn(in.getLongs(4), betsLeft, random.split());
+    }
+
+    // Grade won by the next claimed bet, 0 if it didn't win anything.
+    synchronized int takeGrade() {
+        if (betsLeft == 0) return 0;
+        long ball = random.nextLong(betsLeft--);
+        for (int grade = 1; grade <= 4; grade++) {
+            if (ball < winsLeft[grade - 1]) {
+                winsLeft[grade - 1]--;
+                return grade;
+            }
+            ball -= winsLeft[grade - 1];
+        }
+        return 0;
+    }
+}
\ No newline at end of file
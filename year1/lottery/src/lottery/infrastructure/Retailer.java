@@ -2,71 +2,343 @@ package lottery.infrastructure;
 
 import lottery.player.Player;
 import lottery.ticket.Slip;
-import lottery.ticket.TicketID;
 import lottery.ticket.Ticket;
 import lottery.ticket.SixNumbers;
+import lottery.ticket.BetRanks;
+import lottery.ticket.TicketID;
+import lottery.utility.IntIntMap;
 import lottery.exceptions.BadBehaviourException;
+import lottery.jfr.TicketSaleBatchEvent;
+import lottery.metrics.RetailerMetrics;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Retailer {
 
-    private static final LotteryHeadquarters HEADQUARTERS = LotteryHeadquarters.getInstance();
-
+    private final LotteryHeadquarters headquarters;
     private final int retailerNumber;
-    private final Map<TicketID, Ticket> soldTickets;
-    private final Map<TicketID, Ticket> claimedTickets;
+    private final TicketStore soldTickets;
+    private final IntIntMap[] nextDrawsBets;
+    private final long[] nextDrawsQuickPicks; // Bets sold without numbers, for each of the coming draws.
+    private volatile RetailerActor actor;
+    private final RetailerMetrics salesMetrics;
 
     public Retailer() {
-        HEADQUARTERS.incrementLastRetailerNumber();
-        this.retailerNumber = HEADQUARTERS.lastRetailerNumber();
-        this.soldTickets = new HashMap<>();
-        this.claimedTickets = new HashMap<>();
-        HEADQUARTERS.addRetailer(this);
+        this(LotteryContext.global());
+    }
+
+    public Retailer(LotteryContext context) {
+        this.headquarters = context.headquarters();
+        headquarters.incrementLastRetailerNumber();
+        this.retailerNumber = headquarters.lastRetailerNumber();
+        this.salesMetrics = headquarters.metrics().registerRetailer(retailerNumber);
+        this.soldTickets = new TicketStore();
+        this.nextDrawsBets = new IntIntMap[10];
+        for (int i = 0; i < nextDrawsBets.length; i++) {
+            nextDrawsBets[i] = new IntIntMap();
+        }
+        this.nextDrawsQuickPicks = new long[10];
+        headquarters.addRetailer(this);
     }
 
     public void buyTicketWithSlip(Player player, Slip slip) {
-        if (!player.tryToPay(slip.price())) return;
+        slip = chooseNumbers(player, slip);
+        int randomMarker = drawMarker(player);
+        if (sendsToActor()) {
+            actor.sell(player, slip, randomMarker);
+            return;
+        }
+        sell(player, slip, randomMarker);
+    }
+
+    void sell(Player player, Slip slip, int randomMarker) {
+        long start = System.nanoTime();
+        TicketSaleBatchEvent event = new TicketSaleBatchEvent();
+        event.begin();
+        if (player.tryToPay(slip.price())) {
+            Ticket ticket = new Ticket(this, slip, headquarters.reserveTicketNumbers(1), randomMarker);
+            List<Ticket> sold = List.of(ticket);
+            headquarters.receiveMoneyForTicketSale(ticket);
+            registerSales(sold);
+            player.addTicket(ticket);
+            commitSale(event, 1, sold, slip.price());
+        }
+        headquarters.metrics().buyTicketWithSlip().recordSince(start);
+    }
+
+    // Same outcome as buying the slips one by one: a slip the player can't afford anymore is skipped.
+    public void buyTickets(Player player, List<Slip> slips) {
+        if (!isSampled()) {
+            List<Slip> chosen = new ArrayList<>(slips.size());
+            for (Slip slip : slips) {
+                chosen.add(chooseNumbers(player, slip));
+            }
+            slips = chosen;
+        }
+        int[] randomMarkers = new int[slips.size()];
+        for (int i = 0; i < randomMarkers.length; i++) {
+            randomMarkers[i] = drawMarker(player);
+        }
+        if (sendsToActor()) {
+            actor.sell(player, List.copyOf(slips), randomMarkers);
+            return;
+        }
+        sell(player, slips, randomMarkers);
+    }
+
+    void sell(Player player, List<Slip> slips, int[] randomMarkers) {
+        TicketSaleBatchEvent event = new TicketSaleBatchEvent();
+        event.begin();
+        List<Integer> affordable = new ArrayList<>();
+        long totalPrice = 0;
+        synchronized (player) {
+            for (int i = 0; i < slips.size(); i++) {
+                if (slips.get(i).price() <= player.balance() - totalPrice) {
+                    affordable.add(i);
+                    totalPrice += slips.get(i).price();
+                }
+            }
+            if (affordable.isEmpty() || !player.tryToPay(totalPrice)) return;
+        }
+
+        int ticketNumber = headquarters.reserveTicketNumbers(affordable.size());
+        List<Ticket> tickets = new ArrayList<>(affordable.size());
+        for (int i : affordable) {
+            tickets.add(new Ticket(this, slips.get(i), ticketNumber++, randomMarkers[i]));
+        }
+        headquarters.receiveMoneyForTicketSales(tickets);
+        registerSales(tickets);
+        for (Ticket ticket : tickets) {
+            player.addTicket(ticket);
+        }
+        commitSale(event, slips.size(), tickets, totalPrice);
+    }
+
+    private void commitSale(TicketSaleBatchEvent event, int slipCount, List<Ticket> tickets, long price) {
+        if (!event.shouldCommit()) return;
+        int bets = 0;
+        for (Ticket ticket : tickets) {
+            bets += ticket.betCount();
+        }
+        event.retailerNumber = retailerNumber;
+        event.slips = slipCount;
+        event.tickets = tickets.size();
+        event.bets = bets;
+        event.price = price;
+        event.commit();
+    }
+
+    // Markers come from the player's stream too, so a ticket's ID doesn't depend on the thread that sold it.
+    private static int drawMarker(Player player) {
+        return player.random().nextInt(1_000_000_000);
+    }
+
+    // Quick picks are only left without numbers when their wins are sampled.
+    // Numbers come from the player's stream, before the sale may move to another thread.
+    private Slip chooseNumbers(Player player, Slip slip) {
+        return slip.isQuickPick() && !isSampled() ? slip.pickNumbers(player.random()) : slip;
+    }
+
+    // Players on different threads may buy here at the same time.
+    private synchronized void registerSales(List<Ticket> tickets) {
+        for (Ticket ticket : tickets) {
+            soldTickets.add(ticket);
+            salesMetrics.recordSale(ticket.betCount());
+            if (isTallied()) {
+                tallyBets(ticket);
+            }
+            if (ticket.quickPickCount() > 0) {
+                addQuickPickBets(ticket.firstDrawNumber(), ticket.drawCount(), ticket.quickPickCount());
+            }
+        }
+    }
+
+    private void addQuickPickBets(int firstDrawNumber, int drawCount, int betCount) {
+        for (int i = 0; i < drawCount; i++) {
+            nextDrawsQuickPicks[(firstDrawNumber + i) % 10] += betCount;
+        }
+    }
 
-        Ticket ticket = new Ticket(this, slip);
-        HEADQUARTERS.receiveMoneyForTicketSale(ticket);
-        soldTickets.put(ticket.ticketID(), ticket);
-        player.addTicket(ticket);
+    // Quick picks sold for the draw, handed over to the headquarters once when it's evaluated.
+    synchronized long takeQuickPickBets(int drawNumber) {
+        long betCount = nextDrawsQuickPicks[drawNumber % 10];
+        nextDrawsQuickPicks[drawNumber % 10] = 0;
+        return betCount;
+    }
 
+    private void tallyBets(Ticket ticket) {
+        int[] betRanks = ticket.betRanks();
+        for (int i = 0; i < ticket.drawCount(); i++) {
+            IntIntMap drawBets = nextDrawsBets[(ticket.firstDrawNumber() + i) % 10];
+            for (int rank : betRanks) {
+                drawBets.add(rank, 1);
+            }
+        }
     }
 
     public void buyRandomTicket(Player player, int betCount, int drawCount) {
-        Slip slip = new Slip(SixNumbers.randomList(betCount), drawCount);
-        buyTicketWithSlip(player, slip);
+        buyTicketWithSlip(player, Slip.quickPick(betCount, drawCount));
     }
 
     public void calculateDrawResults(Draw draw) {
-        for (Ticket ticket : this.soldTickets.values()) {
-            ticket.countHits(draw);
-        }
+        draw.registerHits(countDrawResults(draw));
+    }
+
+    GradeCounts countDrawResults(Draw draw) {
+        long start = System.nanoTime();
+        GradeCounts counts = isTallied() ? countTalliedResults(draw) : countDrawResults(draw, 0, activeTicketCount());
+        finishDraw(draw, counts);
+        headquarters.metrics().calculateDrawResults().recordSince(start);
+        return counts;
+    }
+
+    GradeCounts countDrawResults(Draw draw, int from, int to) {
+        GradeCounts counts = new GradeCounts();
+        soldTickets.countHits(draw, from, to, counts);
+        return counts;
+    }
+
+    void finishDraw(Draw draw, GradeCounts counts) {
+        soldTickets.recordWins(draw.drawNumber(), counts);
+        counts.clearWins();
+        soldTickets.retireDraw(draw.drawNumber());
+    }
+
+    private GradeCounts countTalliedResults(Draw draw) {
+        GradeCounts counts = new GradeCounts();
+        IntIntMap drawBets = nextDrawsBets[draw.drawNumber() % 10];
+        long drawnMask = draw.numbers().mask();
+        drawBets.forEach((rank, betCount) -> {
+            int hitCount = BetRanks.hitCount(rank, drawnMask);
+            if (hitCount >= 3) {
+                counts.record(7 - hitCount, betCount);
+            }
+        });
+        drawBets.clear();
+        return counts;
+    }
+
+    boolean isTallied() {
+        return headquarters.drawEvaluation() == DrawEvaluation.AGGREGATED;
+    }
+
+    private boolean isSampled() {
+        return headquarters.drawEvaluation() == DrawEvaluation.SAMPLED;
+    }
+
+    int activeTicketCount() {
+        return soldTickets.activeRowCount();
+    }
+
+    // Both only while nothing is being sold or claimed here.
+    public synchronized long betsInDraw(int drawNumber) {
+        return soldTickets.betCountInDraw(drawNumber);
+    }
+    public synchronized int claimedTicketCount() {
+        return soldTickets.claimedCount();
     }
 
     public void givePrize(Player player, Ticket ticket) {
-        if (!soldTickets.containsKey(ticket.ticketID()))
-            throw new BadBehaviourException("Player can't claim prize for a ticket sold by a different retailer.");
-        if (claimedTickets.containsKey(ticket.ticketID()))
+        if (sendsToActor()) {
+            actor.claim(player, ticket);
+            return;
+        }
+        long start = System.nanoTime();
+        int row = ticket.ticketID().retailerNumber() == retailerNumber ? soldTickets.rowOf(ticket.ticketID()) : -1;
+        if (row == -1 || soldTickets.isClaimed(row)) {
+            headquarters.metrics().recordRejectedClaim();
+            if (row == -1)
+                throw new BadBehaviourException("Player can't claim prize for a ticket sold by a different retailer.");
             throw new BadBehaviourException("Player can't claim prize for a ticket already claimed.");
+        }
 
-        for (int i = 0; i < ticket.drawCount(); i++) {
-            int drawNumber = ticket.firstDrawNumber() + i;
-            if (drawNumber <= HEADQUARTERS.lastDrawNumber()) {
+        if (isTallied()) {
+            givePrizeForBets(player, row);
+        } else if (soldTickets.hasWins(row)) {
+            for (int win = soldTickets.firstWin(row); win != -1; win = soldTickets.nextWin(win)) {
+                headquarters.givePrize(player, soldTickets.winDrawNumber(win), soldTickets.winGrade(win));
+            }
+        }
+        if (soldTickets.quickPickCount(row) > 0) {
+            givePrizeForQuickPicks(player, row);
+        }
+
+        player.removeTicket(ticket);
+        soldTickets.markClaimed(row);
+        headquarters.metrics().recordClaim();
+        headquarters.metrics().givePrize().recordSince(start);
+    }
 
-                for (SixNumbers bet : ticket.bets()) {
-                    HEADQUARTERS.givePrize(player, bet, drawNumber);
+    // Tallied draws don't know which ticket won, so the bets are checked against every finished draw.
+    private void givePrizeForBets(Player player, int row) {
+        for (int i = 0; i < soldTickets.drawCount(row); i++) {
+            int drawNumber = soldTickets.firstDrawNumber(row) + i;
+            if (drawNumber <= headquarters.lastDrawNumber()) {
+
+                for (int bet = 0; bet < soldTickets.betCount(row); bet++) {
+                    headquarters.givePrize(player, new SixNumbers(soldTickets.betMask(row, bet)), drawNumber);
                 }
             }
         }
+    }
 
-        player.removeTicket(ticket);
-        claimedTickets.put(ticket.ticketID(), ticket);
+    // With an actor attached, sales and claims from outside are queued in its mailbox instead of done in place.
+    private boolean sendsToActor() {
+        RetailerActor current = actor;
+        return current != null && !current.isOwnerThread();
+    }
+
+    void attachActor(RetailerActor actor) {
+        this.actor = actor;
+    }
+
+    public RetailerActor actor() {
+        return actor;
     }
 
+    private void givePrizeForQuickPicks(Player player, int row) {
+        for (int i = 0; i < soldTickets.drawCount(row); i++) {
+            int drawNumber = soldTickets.firstDrawNumber(row) + i;
+            if (drawNumber <= headquarters.lastDrawNumber()) {
+
+                for (int bet = 0; bet < soldTickets.quickPickCount(row); bet++) {
+                    int grade = headquarters.takeQuickPickGrade(drawNumber, retailerNumber);
+                    if (grade != 0) headquarters.givePrize(player, drawNumber, grade);
+                }
+            }
+        }
+    }
+
+    TicketStore soldTickets() {
+        return soldTickets;
+    }
+
+    Ticket restoreTicket(int row) {
+        return new Ticket(this, new TicketID(soldTickets.ticketNumber(row), retailerNumber, soldTickets.randomMarker(row)),
+                soldTickets.firstDrawNumber(row), soldTickets.drawCount(row), soldTickets.price(row),
+                soldTickets.betRanks(row), soldTickets.quickPickCount(row));
+    }
+
+    // Scanning buckets, tallies and quick-pick counts aren't checkpointed, they're rebuilt from the restored tickets.
+    void finishRestore(int lastDrawNumber) {
+        soldTickets.activateUnfinished(lastDrawNumber);
+        for (int row = 0; row < soldTickets.rowCount(); row++) {
+            int lastTicketDraw = soldTickets.firstDrawNumber(row) + soldTickets.drawCount(row) - 1;
+            for (int drawNumber = lastDrawNumber + 1; drawNumber <= lastTicketDraw; drawNumber++) {
+                if (drawNumber < soldTickets.firstDrawNumber(row)) continue;
+                nextDrawsQuickPicks[drawNumber % 10] += soldTickets.quickPickCount(row);
+                if (!isTallied()) continue;
+                for (int bet = 0; bet < soldTickets.betCount(row); bet++) {
+                    nextDrawsBets[drawNumber % 10].add(soldTickets.betRank(row, bet), 1);
+                }
+            }
+        }
+    }
+
+    public LotteryHeadquarters headquarters() {
+        return headquarters;
+    }
     public int retailerNumber() {
         return retailerNumber;
     }
@@ -0,0 +1,150 @@
+package lottery.infrastructure;
+
+import lottery.player.Player;
+import lottery.ticket.Slip;
+import lottery.ticket.Ticket;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+// Runs one retailer's sales, claims and draw evaluations one at a time, in the order they were sent.
+// Actors share a pool and only hold a thread while their mailbox has messages.
+public class RetailerActor {
+
+    private static final int MESSAGES_PER_TURN = 64;
+
+    private final Retailer retailer;
+    private final BlockingQueue<Runnable> mailbox;
+    private final Executor executor;
+    private final AtomicBoolean scheduled;
+    private volatile Thread owner;
+
+    private final AtomicLong processedCount;
+    private final AtomicInteger peakMailboxDepth;
+    private final AtomicReference<RuntimeException> failure;
+    private final long startTime;
+
+    RetailerActor(Retailer retailer, int mailboxCapacity, Executor executor) {
+        this.retailer = retailer;
+        this.mailbox = new ArrayBlockingQueue<>(mailboxCapacity);
+        this.executor = executor;
+        this.scheduled = new AtomicBoolean(false);
+        this.processedCount = new AtomicLong();
+        this.peakMailboxDepth = new AtomicInteger();
+        this.failure = new AtomicReference<>();
+        this.startTime = System.nanoTime();
+    }
+
+    public CompletableFuture<Void> sell(Player player, Slip slip, int randomMarker) {
+        return send(() -> {
+            retailer.sell(player, slip, randomMarker);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> sell(Player player, List<Slip> slips, int[] randomMarkers) {
+        return send(() -> {
+            retailer.sell(player, slips, randomMarkers);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> claim(Player player, Ticket ticket) {
+        return send(() -> {
+            retailer.givePrize(player, ticket);
+            return null;
+        });
+    }
+
+    public CompletableFuture<GradeCounts> evaluate(Draw draw) {
+        return send(() -> retailer.countDrawResults(draw));
+    }
+
+    // Completes once everything sent before it has been handled.
+    public CompletableFuture<Void> barrier() {
+        return send(() -> null);
+    }
+
+    private <T> CompletableFuture<T> send(Supplier<T> command) {
+        CompletableFuture<T> reply = new CompletableFuture<>();
+        Runnable message = () -> {
+            try {
+                reply.complete(command.get());
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                reply.completeExceptionally(e);
+            }
+        };
+
+        try {
+            mailbox.put(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reply.completeExceptionally(e);
+            return reply;
+        }
+        peakMailboxDepth.accumulateAndGet(mailbox.size(), Math::max);
+        schedule();
+        return reply;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        owner = Thread.currentThread();
+        for (int i = 0; i < MESSAGES_PER_TURN; i++) {
+            Runnable message = mailbox.poll();
+            if (message == null) break;
+            message.run();
+            processedCount.incrementAndGet();
+        }
+        owner = null;
+        scheduled.set(false);
+        if (!mailbox.isEmpty()) schedule();
+    }
+
+    // Sales and claims routed here by the retailer have nobody waiting for the reply, so the first error is kept.
+    RuntimeException takeFailure() {
+        return failure.getAndSet(null);
+    }
+
+    boolean isOwnerThread() {
+        return owner == Thread.currentThread();
+    }
+
+    public Retailer retailer() {
+        return retailer;
+    }
+    public int mailboxDepth() {
+        return mailbox.size();
+    }
+    public int peakMailboxDepth() {
+        return peakMailboxDepth.get();
+    }
+    public long processedCount() {
+        return processedCount.get();
+    }
+    public double messagesPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        return seconds > 0 ? processedCount.get() / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Retailer no. " + retailer.retailerNumber() + ": " + processedCount() + " messages, "
+                + mailboxDepth() + " waiting, peak " + peakMailboxDepth() + ", "
+                + Math.round(messagesPerSecond()) + " per second";
+    }
+}
\ No newline at end of file
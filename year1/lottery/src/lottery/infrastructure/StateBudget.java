@@ -1,47 +1,50 @@
 package lottery.infrastructure;
 
-import lottery.utility.Formatter;
+import lottery.report.ReportSink;
+import lottery.report.TextReportSink;
 
 public class StateBudget {
 
-    private long income;
-    private long subsidies;
+    private final MoneyLedger ledger;
 
-    private StateBudget() {
-        income = 0;
-        subsidies = 0;
+    StateBudget(MoneyLedger ledger) {
+        this.ledger = ledger;
     }
 
-    private static class Holder {
-        private static final StateBudget INSTANCE = new StateBudget();
-    }
     public static StateBudget getInstance() {
-        return Holder.INSTANCE;
+        return LotteryContext.global().stateBudget();
     }
 
     public void listStateFinanceRecords() {
-        System.out.println("The state received " + Formatter.centsToString(income) + "\nThe state gave the lottery " +
-                "headquarters " +
-                Formatter.centsToString(subsidies) + " in subsidies.");
+        ReportSink sink = new TextReportSink(System.out);
+        reportFinances(sink);
+        sink.flush();
+    }
+
+    public void reportFinances(ReportSink sink) {
+        sink.stateFinances(income(), subsidies());
     }
 
     public void reset() {
-        income = 0;
-        subsidies = 0;
+        ledger.resetStateBudget();
     }
 
     public void giveSubsidy(long amount) {
-        subsidies += amount;
+        ledger.giveSubsidy(amount);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordMoney(EventJournal.SUBSIDY, amount);
     }
     public void receiveTax(long amount) {
-        income += amount;
+        ledger.recordSales(0, amount);
+        EventJournal journal = ledger.journal();
+        if (journal != null) journal.recordMoney(EventJournal.TAX, amount);
     }
 
     public long income() {
-        return income;
+        return ledger.taxIncome();
     }
 
     public long subsidies() {
-        return subsidies;
+        return ledger.subsidies();
     }
 }
\ No newline at end of file
@@ -0,0 +1,342 @@
+package lottery.infrastructure;
+
+import lottery.ticket.BetRanks;
+import lottery.ticket.Ticket;
+import lottery.ticket.TicketID;
+import lottery.utility.BinaryInput;
+import lottery.utility.BinaryOutput;
+import lottery.utility.IntIntMap;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntUnaryOperator;
+
+// Sold tickets kept column by column, one row per ticket, with all bets packed into a single array.
+// Bets are kept as number masks, decoded from their ranks once at sale time, so a scan only has to popcount.
+class TicketStore {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MAX_DRAW_COUNT = 10;
+
+    private int[] ticketNumbers;
+    private int[] randomMarkers;
+    private int[] firstDrawNumbers;
+    private byte[] drawCounts;
+    private byte[] quickPickCounts;
+    private int[] prices;
+    private int[] betOffsets;
+    private long[] betMasks;
+    private int[] winHeads;
+
+    // Wins found while scanning: a linked list per row, winHeads and winNext hold entry index + 1, 0 ends a list.
+    private int[] winRows;
+    private int[] winDrawNumbers;
+    private byte[] winGrades;
+    private int[] winNext;
+    private int winCount;
+
+    private final IntIntMap rowsByTicketNumber;
+    private final BitSet claimedRows;
+    private int rowCount;
+    private int betCount;
+
+    // Rows of tickets still taking part in draws, bucketed by the number of their last draw.
+    private final int[][] activeRows;
+    private final int[] activeRowCounts;
+
+    TicketStore() {
+        ticketNumbers = new int[INITIAL_CAPACITY];
+        randomMarkers = new int[INITIAL_CAPACITY];
+        firstDrawNumbers = new int[INITIAL_CAPACITY];
+        drawCounts = new byte[INITIAL_CAPACITY];
+        quickPickCounts = new byte[INITIAL_CAPACITY];
+        prices = new int[INITIAL_CAPACITY];
+        betOffsets = new int[INITIAL_CAPACITY + 1];
+        betMasks = new long[INITIAL_CAPACITY];
+        winHeads = new int[INITIAL_CAPACITY];
+        winRows = new int[INITIAL_CAPACITY];
+        winDrawNumbers = new int[INITIAL_CAPACITY];
+        winGrades = new byte[INITIAL_CAPACITY];
+        winNext = new int[INITIAL_CAPACITY];
+        winCount = 0;
+        rowsByTicketNumber = new IntIntMap(INITIAL_CAPACITY);
+        claimedRows = new BitSet();
+        rowCount = 0;
+        betCount = 0;
+        activeRows = new int[MAX_DRAW_COUNT][INITIAL_CAPACITY];
+        activeRowCounts = new int[MAX_DRAW_COUNT];
+    }
+
+    int add(Ticket ticket) {
+        int row = addRow(ticket.ticketID().ticketNumber(), ticket.ticketID().randomMarker(), ticket.firstDrawNumber(),
+                ticket.drawCount(), ticket.quickPickCount(), (int) ticket.ticketPrice(), ticket.betRanks());
+        if (betCount(row) > 0) {
+            activate(row, ticket.firstDrawNumber() + ticket.drawCount() - 1);
+        }
+        return row;
+    }
+
+    private int addRow(int ticketNumber, int randomMarker, int firstDrawNumber, int drawCount, int quickPickCount,
+                       int price, int[] ranks) {
+        if (rowCount == ticketNumbers.length) growRows();
+        if (betCount + ranks.length > betMasks.length)
+            betMasks = Arrays.copyOf(betMasks, Math.max(betMasks.length * 2, betCount + ranks.length));
+
+        int row = rowCount++;
+        ticketNumbers[row] = ticketNumber;
+        randomMarkers[row] = randomMarker;
+        firstDrawNumbers[row] = firstDrawNumber;
+        drawCounts[row] = (byte) drawCount;
+        quickPickCounts[row] = (byte) quickPickCount;
+        prices[row] = price;
+        for (int rank : ranks) {
+            betMasks[betCount++] = BetRanks.maskOf(rank);
+        }
+        betOffsets[row + 1] = betCount;
+
+        rowsByTicketNumber.put(ticketNumber, row);
+        return row;
+    }
+
+    private void activate(int row, int lastDrawNumber) {
+        int bucket = lastDrawNumber % MAX_DRAW_COUNT;
+        if (activeRowCounts[bucket] == activeRows[bucket].length)
+            activeRows[bucket] = Arrays.copyOf(activeRows[bucket], activeRows[bucket].length * 2);
+        activeRows[bucket][activeRowCounts[bucket]++] = row;
+    }
+
+    // Tickets whose last draw was this one won't be scanned again.
+    void retireDraw(int drawNumber) {
+        activeRowCounts[drawNumber % MAX_DRAW_COUNT] = 0;
+    }
+
+    int activeRowCount() {
+        int count = 0;
+        for (int bucketSize : activeRowCounts) {
+            count += bucketSize;
+        }
+        return count;
+    }
+
+    private void growRows() {
+        int capacity = ticketNumbers.length * 2;
+        ticketNumbers = Arrays.copyOf(ticketNumbers, capacity);
+        randomMarkers = Arrays.copyOf(randomMarkers, capacity);
+        firstDrawNumbers = Arrays.copyOf(firstDrawNumbers, capacity);
+        drawCounts = Arrays.copyOf(drawCounts, capacity);
+        quickPickCounts = Arrays.copyOf(quickPickCounts, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        betOffsets = Arrays.copyOf(betOffsets, capacity + 1);
+        winHeads = Arrays.copyOf(winHeads, capacity);
+    }
+
+    void recordWins(int drawNumber, GradeCounts counts) {
+        for (int i = 0; i < counts.winCount(); i++) {
+            recordWin(counts.winRow(i), drawNumber, counts.winGrade(i));
+        }
+    }
+
+    private void recordWin(int row, int drawNumber, int grade) {
+        if (winCount == winDrawNumbers.length) {
+            int capacity = winCount * 2;
+            winRows = Arrays.copyOf(winRows, capacity);
+            winDrawNumbers = Arrays.copyOf(winDrawNumbers, capacity);
+            winGrades = Arrays.copyOf(winGrades, capacity);
+            winNext = Arrays.copyOf(winNext, capacity);
+        }
+        winRows[winCount] = row;
+        winDrawNumbers[winCount] = drawNumber;
+        winGrades[winCount] = (byte) grade;
+        winNext[winCount] = winHeads[row];
+        winHeads[row] = ++winCount;
+    }
+
+    boolean hasWins(int row) {
+        return winHeads[row] != 0;
+    }
+    int firstWin(int row) {
+        return winHeads[row] - 1;
+    }
+    int nextWin(int win) {
+        return winNext[win] - 1;
+    }
+    int winDrawNumber(int win) {
+        return winDrawNumbers[win];
+    }
+    int winGrade(int win) {
+        return winGrades[win];
+    }
+
+    int rowOf(TicketID ticketID) {
+        int row = rowsByTicketNumber.get(ticketID.ticketNumber(), -1);
+        if (row == -1 || randomMarkers[row] != ticketID.randomMarker()) return -1;
+        return row;
+    }
+
+    // Positions from and to index the active rows as if all buckets were laid out one after another.
+    void countHits(Draw draw, int from, int to, GradeCounts counts) {
+        int drawNumber = draw.drawNumber();
+        long drawnMask = draw.numbers().mask();
+        int bucketStart = 0;
+        for (int bucket = 0; bucket < MAX_DRAW_COUNT && bucketStart < to; bucket++) {
+            int[] rows = activeRows[bucket];
+            int bucketEnd = bucketStart + activeRowCounts[bucket];
+            for (int i = Math.max(from, bucketStart); i < Math.min(to, bucketEnd); i++) {
+                countHits(rows[i - bucketStart], drawNumber, drawnMask, counts);
+            }
+            bucketStart = bucketEnd;
+        }
+    }
+
+    private void countHits(int row, int drawNumber, long drawnMask, GradeCounts counts) {
+        if (firstDrawNumbers[row] > drawNumber || firstDrawNumbers[row] + drawCounts[row] <= drawNumber) {
+            return;
+        }
+        for (int bet = betOffsets[row]; bet < betOffsets[row + 1]; bet++) {
+            int hitCount = Long.bitCount(betMasks[bet] & drawnMask);
+            if (hitCount >= 3) {
+                counts.recordWin(row, 7 - hitCount);
+            }
+        }
+    }
+
+    // Bets a scan of this draw goes through.
+    long betCountInDraw(int drawNumber) {
+        long bets = 0;
+        for (int bucket = 0; bucket < MAX_DRAW_COUNT; bucket++) {
+            for (int i = 0; i < activeRowCounts[bucket]; i++) {
+                int row = activeRows[bucket][i];
+                if (firstDrawNumbers[row] <= drawNumber && drawNumber < firstDrawNumbers[row] + drawCounts[row]) {
+                    bets += betCount(row);
+                }
+            }
+        }
+        return bets;
+    }
+
+    int claimedCount() {
+        return claimedRows.cardinality();
+    }
+
+    boolean isClaimed(int row) {
+        return claimedRows.get(row);
+    }
+    void markClaimed(int row) {
+        claimedRows.set(row);
+    }
+    BitSet claimedRows() {
+        return (BitSet) claimedRows.clone();
+    }
+
+    int winCount() {
+        return winCount;
+    }
+
+    // Rows and wins from the given positions on, and every claim not among the ones already written.
+    // Everything else in the store is either fixed at sale time or can be worked out from this.
+    void writeCheckpoint(BinaryOutput out, int fromRow, int fromWin, BitSet writtenClaims,
+                         IntUnaryOperator ownerOfRow) {
+        out.putInt(rowCount - fromRow);
+        for (int row = fromRow; row < rowCount; row++) {
+            out.putInt(ticketNumbers[row]);
+            out.putInt(randomMarkers[row]);
+            out.putInt(firstDrawNumbers[row]);
+            out.putByte(drawCounts[row]);
+            out.putByte(quickPickCounts[row]);
+            out.putInt(prices[row]);
+            out.putByte(betCount(row));
+            for (int bet = betOffsets[row]; bet < betOffsets[row + 1]; bet++) {
+                out.putInt(BetRanks.rankOf(betMasks[bet]));
+            }
+            out.putInt(ownerOfRow.applyAsInt(row));
+        }
+
+        out.putInt(winCount - fromWin);
+        for (int win = fromWin; win < winCount; win++) {
+            out.putInt(winRows[win]);
+            out.putInt(winDrawNumbers[win]);
+            out.putByte(winGrades[win]);
+        }
+
+        BitSet newClaims = claimedRows();
+        newClaims.andNot(writtenClaims);
+        out.putInt(newClaims.cardinality());
+        for (int row = newClaims.nextSetBit(0); row >= 0; row = newClaims.nextSetBit(row + 1)) {
+            out.putInt(row);
+        }
+    }
+
+    // Owners of the rows read are put into owners, indexed by row.
+    void readCheckpoint(BinaryInput in, IntIntMap owners) {
+        int rows = in.getInt();
+        for (int i = 0; i < rows; i++) {
+            int ticketNumber = in.getInt();
+            int randomMarker = in.getInt();
+            int firstDrawNumber = in.getInt();
+            int drawCount = in.getByte();
+            int quickPickCount = in.getByte();
+            int price = in.getInt();
+            int[] ranks = in.getInts(in.getByte());
+            int row = addRow(ticketNumber, randomMarker, firstDrawNumber, drawCount, quickPickCount, price, ranks);
+            owners.put(row, in.getInt());
+        }
+
+        int wins = in.getInt();
+        for (int i = 0; i < wins; i++) {
+            recordWin(in.getInt(), in.getInt(), in.getByte());
+        }
+
+        int claims = in.getInt();
+        for (int i = 0; i < claims; i++) {
+            claimedRows.set(in.getInt());
+        }
+    }
+
+    // After a restore, tickets with draws still ahead go back to being scanned.
+    void activateUnfinished(int lastDrawNumber) {
+        for (int row = 0; row < rowCount; row++) {
+            int lastTicketDraw = firstDrawNumbers[row] + drawCounts[row] - 1;
+            if (betCount(row) > 0 && lastTicketDraw > lastDrawNumber) {
+                activate(row, lastTicketDraw);
+            }
+        }
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+    int ticketNumber(int row) {
+        return ticketNumbers[row];
+    }
+    int randomMarker(int row) {
+        return randomMarkers[row];
+    }
+    int firstDrawNumber(int row) {
+        return firstDrawNumbers[row];
+    }
+    int drawCount(int row) {
+        return drawCounts[row];
+    }
+    int quickPickCount(int row) {
+        return quickPickCounts[row];
+    }
+    long price(int row) {
+        return prices[row];
+    }
+    int betCount(int row) {
+        return betOffsets[row + 1] - betOffsets[row];
+    }
+    long betMask(int row, int bet) {
+        return betMasks[betOffsets[row] + bet];
+    }
+    int betRank(int row, int bet) {
+        return BetRanks.rankOf(betMask(row, bet));
+    }
+    int[] betRanks(int row) {
+        int[] ranks = new int[betCount(row)];
+        for (int bet = 0; bet < ranks.length; bet++) {
+            ranks[bet] = betRank(row, bet);
+        }
+        return ranks;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package lottery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// The whole of LotteryHeadquarters.drawNumbers, from waiting for the retailers to the draw being booked.
+@Name("lottery.DrawEvaluated")
+@Label("Draw Evaluated")
+@Category({"Lottery", "Draws"})
+@Description("Drawing numbers and evaluating every ticket sold for them")
+@Enabled(false)
+@StackTrace(false)
+public class DrawEvaluatedEvent extends Event {
+
+    @Label("Draw Number")
+    public int drawNumber;
+
+    @Label("Evaluation")
+    public String evaluation;
+
+    @Label("Tickets Scanned")
+    @Description("Tickets still running at the retailers when the draw started")
+    public long ticketsScanned;
+
+    @Label("Six Hits")
+    public int grade1;
+
+    @Label("Five Hits")
+    public int grade2;
+
+    @Label("Four Hits")
+    public int grade3;
+
+    @Label("Three Hits")
+    public int grade4;
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package lottery.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+// The lottery's events are off unless a recording asks for them. This one runs JFR's default
+// settings with all of them turned on and is written to the given file once closed.
+// An outside recording needs them enabled too, e.g. with lottery.jfc next to the pom.
+public class FlightRecording implements AutoCloseable {
+
+    private final Recording recording;
+
+    public FlightRecording(Path destination) {
+        try {
+            this.recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setDestination(destination);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't record to " + destination + ".", e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Bad default JFR configuration.", e);
+        }
+        recording.setName("lottery");
+        recording.enable(DrawEvaluatedEvent.class);
+        recording.enable(TicketSaleBatchEvent.class);
+        recording.enable(PrizeClaimedEvent.class);
+        recording.enable(PlayerPhaseEvent.class);
+        recording.start();
+    }
+
+    @Override
+    public void close() {
+        recording.stop(); // Writes the destination file.
+        recording.close();
+    }
+}
\ No newline at end of file
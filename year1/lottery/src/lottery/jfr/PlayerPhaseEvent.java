@@ -0,0 +1,32 @@
+package lottery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One phase of a simulated draw: every player buying, the draw itself, or every player collecting.
+@Name("lottery.PlayerPhase")
+@Label("Player Phase")
+@Category({"Lottery", "Simulation"})
+@Enabled(false)
+@StackTrace(false)
+public class PlayerPhaseEvent extends Event {
+
+    public static final String BUY = "buy";
+    public static final String DRAW = "draw";
+    public static final String COLLECT = "collect";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Draw Number")
+    @Description("The draw the phase belongs to")
+    public int drawNumber;
+
+    @Label("Players")
+    public int players;
+}
\ No newline at end of file
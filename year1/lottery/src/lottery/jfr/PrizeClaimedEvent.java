@@ -0,0 +1,38 @@
+package lottery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One prize paid out by the headquarters. Amounts are in cents.
+@Name("lottery.PrizeClaimed")
+@Label("Prize Claimed")
+@Category({"Lottery", "Claims"})
+@Description("A prize paid out for one winning bet")
+@Enabled(false)
+@StackTrace(false)
+public class PrizeClaimedEvent extends Event {
+
+    @Label("Draw Number")
+    public int drawNumber;
+
+    @Label("Grade")
+    public int grade;
+
+    @Label("Amount")
+    public long amount;
+
+    @Label("Tax Withheld")
+    public long taxWithheld;
+
+    @Label("Subsidy")
+    @Description("Taken from the state budget because the balance couldn't cover the prize")
+    public long subsidy;
+
+    @Label("Subsidy Triggered")
+    public boolean subsidyTriggered;
+}
\ No newline at end of file
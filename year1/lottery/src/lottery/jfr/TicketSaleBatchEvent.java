@@ -0,0 +1,36 @@
+package lottery.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// One sale at a retailer, a single slip or a whole batch of them, timed from payment to registration.
+@Name("lottery.TicketSaleBatch")
+@Label("Ticket Sale Batch")
+@Category({"Lottery", "Sales"})
+@Description("Tickets sold to one player in one go")
+@Enabled(false)
+@StackTrace(false)
+public class TicketSaleBatchEvent extends Event {
+
+    @Label("Retailer Number")
+    public int retailerNumber;
+
+    @Label("Slips")
+    public int slips;
+
+    @Label("Tickets")
+    @Description("Slips the player could afford")
+    public int tickets;
+
+    @Label("Bets")
+    public int bets;
+
+    @Label("Price")
+    @Description("Paid in total, in cents")
+    public long price;
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package lottery.metrics;
+
+public class HistogramSnapshot {
+
+    private final String name;
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    HistogramSnapshot(String name, long[] counts, long total, long max) {
+        this.name = name;
+        this.counts = counts;
+        long count = 0;
+        for (long bucketCount : counts) {
+            count += bucketCount;
+        }
+        this.count = count;
+        this.total = total;
+        this.max = max;
+    }
+
+    // Lowest value of the bucket holding the given percentile, so within about 3% below the true value.
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(LatencyHistogram.lowestValueOf(bucket), max);
+        }
+        return max;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    public String name() {
+        return name;
+    }
+    public long count() {
+        return count;
+    }
+    public long max() {
+        return max;
+    }
+}
\ No newline at end of file
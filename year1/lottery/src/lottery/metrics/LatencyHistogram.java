@@ -0,0 +1,77 @@
+package lottery.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear buckets in the style of HdrHistogram: every power of two is split into 32 equal sub-buckets,
+// so a recorded value is off by at most 1/32 (about 3%) anywhere from nanoseconds up to centuries.
+// Recording is a few atomic increments on preallocated counters, it never allocates.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Values below twice the sub-bucket count get a bucket each, the rest share by magnitude.
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKET_COUNT;
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT;
+
+    private final String name;
+    private final AtomicLongArray counts;
+    private final AtomicLong total;
+    private final AtomicLong max;
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.total = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_LIMIT) return (int) Math.max(value, 0);
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    }
+
+    // Smallest value that lands in the bucket.
+    static long lowestValueOf(int bucket) {
+        if (bucket < LINEAR_LIMIT) return bucket;
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (bucket - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(value));
+        total.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    // Time passed since a System.nanoTime() reading.
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Counts are read one by one while others may still record, so a snapshot can be off by what landed meanwhile.
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new HistogramSnapshot(name, copy, total.get(), max.get());
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        max.set(0);
+    }
+
+    public String name() {
+        return name;
+    }
+}
\ No newline at end of file
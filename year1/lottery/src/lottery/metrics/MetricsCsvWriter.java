@@ -0,0 +1,78 @@
+package lottery.metrics;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+// One row per draw. Counters are totals so far, latencies are count, p50, p99 and max in nanoseconds.
+// Retailers get a column each, as they were when the first row was written.
+public class MetricsCsvWriter implements Consumer<MetricsSnapshot>, AutoCloseable {
+
+    private final BufferedWriter out;
+    private int retailerColumns; // -1 until the header is written.
+
+    public MetricsCsvWriter(Path path) {
+        try {
+            this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open metrics file " + path + ".", e);
+        }
+        this.retailerColumns = -1;
+    }
+
+    @Override
+    public void accept(MetricsSnapshot snapshot) {
+        try {
+            if (retailerColumns < 0) {
+                writeHeader(snapshot);
+                retailerColumns = snapshot.retailerNumbers().length;
+            }
+            StringBuilder row = new StringBuilder();
+            row.append(snapshot.drawNumber()).append(',').append(snapshot.totalTicketsSold())
+                    .append(',').append(snapshot.totalBetsSold()).append(',').append(snapshot.claims())
+                    .append(',').append(snapshot.rejectedClaims()).append(',').append(snapshot.subsidiesTriggered())
+                    .append(',').append(snapshot.subsidyAmount());
+            for (HistogramSnapshot histogram : snapshot.histograms()) {
+                row.append(',').append(histogram.count()).append(',').append(histogram.valueAtPercentile(50))
+                        .append(',').append(histogram.valueAtPercentile(99)).append(',').append(histogram.max());
+            }
+            for (int i = 0; i < Math.min(retailerColumns, snapshot.ticketsSold().length); i++) {
+                row.append(',').append(snapshot.ticketsSold()[i]).append(',').append(snapshot.betsSold()[i]);
+            }
+            out.write(row.toString());
+            out.newLine();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write metrics.", e);
+        }
+    }
+
+    private void writeHeader(MetricsSnapshot snapshot) throws IOException {
+        StringBuilder header = new StringBuilder(
+                "draw,tickets_sold,bets_sold,claims,rejected_claims,subsidies_triggered,subsidy_amount");
+        for (HistogramSnapshot histogram : snapshot.histograms()) {
+            String name = histogram.name();
+            header.append(',').append(name).append("_count,").append(name).append("_p50_ns,")
+                    .append(name).append("_p99_ns,").append(name).append("_max_ns");
+        }
+        for (int retailerNumber : snapshot.retailerNumbers()) {
+            header.append(",retailer_").append(retailerNumber).append("_tickets")
+                    .append(",retailer_").append(retailerNumber).append("_bets");
+        }
+        out.write(header.toString());
+        out.newLine();
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't close metrics file.", e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package lottery.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Counters and latency histograms of one lottery. Everything is created up front,
+// so recording only bumps existing counters and is cheap enough to stay on all the time.
+// Latencies are in nanoseconds.
+public class MetricsRegistry {
+
+    private final List<RetailerMetrics> retailers;
+    private final LongAdder claims;
+    private final LongAdder rejectedClaims;
+    private final LongAdder subsidiesTriggered;
+    private final LongAdder subsidyAmount;
+
+    private final LatencyHistogram drawNumbers;
+    private final LatencyHistogram calculateDrawResults;
+    private final LatencyHistogram givePrize;
+    private final LatencyHistogram buyTicketWithSlip;
+
+    private volatile Consumer<MetricsSnapshot> drawListener;
+
+    public MetricsRegistry() {
+        retailers = new ArrayList<>();
+        claims = new LongAdder();
+        rejectedClaims = new LongAdder();
+        subsidiesTriggered = new LongAdder();
+        subsidyAmount = new LongAdder();
+        drawNumbers = new LatencyHistogram("drawNumbers");
+        calculateDrawResults = new LatencyHistogram("calculateDrawResults");
+        givePrize = new LatencyHistogram("givePrize");
+        buyTicketWithSlip = new LatencyHistogram("buyTicketWithSlip");
+    }
+
+    public synchronized RetailerMetrics registerRetailer(int retailerNumber) {
+        RetailerMetrics metrics = new RetailerMetrics(retailerNumber);
+        retailers.add(metrics);
+        return metrics;
+    }
+
+    public void recordClaim() {
+        claims.increment();
+    }
+    public void recordRejectedClaim() {
+        rejectedClaims.increment();
+    }
+    public void recordSubsidy(long amount) {
+        subsidiesTriggered.increment();
+        subsidyAmount.add(amount);
+    }
+
+    public LatencyHistogram drawNumbers() {
+        return drawNumbers;
+    }
+    // One value per retailer per draw, however the draw was evaluated.
+    public LatencyHistogram calculateDrawResults() {
+        return calculateDrawResults;
+    }
+    public LatencyHistogram givePrize() {
+        return givePrize;
+    }
+    public LatencyHistogram buyTicketWithSlip() {
+        return buyTicketWithSlip;
+    }
+
+    public synchronized MetricsSnapshot snapshot(int drawNumber) {
+        int[] retailerNumbers = new int[retailers.size()];
+        long[] ticketsSold = new long[retailers.size()];
+        long[] betsSold = new long[retailers.size()];
+        for (int i = 0; i < retailers.size(); i++) {
+            RetailerMetrics retailer = retailers.get(i);
+            retailerNumbers[i] = retailer.retailerNumber();
+            ticketsSold[i] = retailer.ticketsSold();
+            betsSold[i] = retailer.betsSold();
+        }
+        return new MetricsSnapshot(drawNumber, retailerNumbers, ticketsSold, betsSold, claims.sum(),
+                rejectedClaims.sum(), subsidiesTriggered.sum(), subsidyAmount.sum(), drawNumbers.snapshot(),
+                calculateDrawResults.snapshot(), givePrize.snapshot(), buyTicketWithSlip.snapshot());
+    }
+
+    // Called with a snapshot after every draw, on the thread running the draws.
+    public void setDrawListener(Consumer<MetricsSnapshot> drawListener) {
+        this.drawListener = drawListener;
+    }
+
+    public void drawFinished(int drawNumber) {
+        Consumer<MetricsSnapshot> listener = drawListener;
+        if (listener != null) listener.accept(snapshot(drawNumber));
+    }
+
+    public synchronized void reset() {
+        retailers.clear();
+        claims.reset();
+        rejectedClaims.reset();
+        subsidiesTriggered.reset();
+        subsidyAmount.reset();
+        drawNumbers.reset();
+        calculateDrawResults.reset();
+        givePrize.reset();
+        buyTicketWithSlip.reset();
+    }
+}
\ No newline at end of file
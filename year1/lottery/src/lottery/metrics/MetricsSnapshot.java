@@ -0,0 +1,28 @@
+package lottery.metrics;
+
+// Everything counted since the lottery started, taken right after the given draw.
+public record MetricsSnapshot(int drawNumber, int[] retailerNumbers, long[] ticketsSold, long[] betsSold,
+                              long claims, long rejectedClaims, long subsidiesTriggered, long subsidyAmount,
+                              HistogramSnapshot drawNumbers, HistogramSnapshot calculateDrawResults,
+                              HistogramSnapshot givePrize, HistogramSnapshot buyTicketWithSlip) {
+
+    public long totalTicketsSold() {
+        long total = 0;
+        for (long tickets : ticketsSold) {
+            total += tickets;
+        }
+        return total;
+    }
+
+    public long totalBetsSold() {
+        long total = 0;
+        for (long bets : betsSold) {
+            total += bets;
+        }
+        return total;
+    }
+
+    public HistogramSnapshot[] histograms() {
+        return new HistogramSnapshot[] {drawNumbers, calculateDrawResults, givePrize, buyTicketWithSlip};
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package lottery.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Sales of one retailer, recorded by whichever thread sells there.
+public class RetailerMetrics {
+
+    private final int retailerNumber;
+    private final LongAdder ticketsSold;
+    private final LongAdder betsSold;
+
+    RetailerMetrics(int retailerNumber) {
+        this.retailerNumber = retailerNumber;
+        this.ticketsSold = new LongAdder();
+        this.betsSold = new LongAdder();
+    }
+
+    public void recordSale(int betCount) {
+        ticketsSold.increment();
+        betsSold.add(betCount);
+    }
+
+    public int retailerNumber() {
+        return retailerNumber;
+    }
+    public long ticketsSold() {
+        return ticketsSold.sum();
+    }
+    public long betsSold() {
+        return betsSold.sum();
+    }
+}
\ No newline at end of file
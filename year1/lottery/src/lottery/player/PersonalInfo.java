@@ -1,10 +1,10 @@
 package lottery.player;
 
-import java.util.Random;
+import lottery.utility.RandomSource;
 
-public record PersonalInfo(String name, String surname, long idNumber) {
+import java.util.random.RandomGenerator;
 
-    private static final Random RAND = new Random();
+public record PersonalInfo(String name, String surname, long idNumber) {
 
     public static PersonalInfo generateRandomInfo() {
         return new PersonalInfo(generateName(), generateSurname(), generateIDNumber());
@@ -23,7 +23,7 @@ public record PersonalInfo(String name, String surname, long idNumber) {
                 "Maria", "Marta", "Mila", "Monika", "Natalia", "Paulina",
                 "Sylwia", "Zuzanna"
         };
-        int index = RAND.nextInt(names.length);
+        int index = RandomSource.current().nextInt(names.length);
         return names[index];
     }
 
@@ -35,23 +35,24 @@ public record PersonalInfo(String name, String surname, long idNumber) {
                 "Narutowicz", "Rydz", "Raczkiewicz", "Sabbat", "Bierut", "Lange", "Ochab", "Borusewicz",
                 "Schetyna", "Marczuk", "Jongo", "BONGO"
         };
-        int index = RAND.nextInt(surnames.length);
+        int index = RandomSource.current().nextInt(surnames.length);
         return surnames[index];
     }
 
     private static long generateIDNumber() {
+        RandomGenerator random = RandomSource.current();
         long idNumber = 0;
-        long year = RAND.nextLong(100);
-        long month = RAND.nextLong(12) + 1;
+        long year = random.nextLong(100);
+        long month = random.nextLong(12) + 1;
         if (year <= 6) {
-            month += RAND.nextLong(2) * 20;
+            month += random.nextLong(2) * 20;
         }
-        long day = RAND.nextLong(daysInMonth(month)) + 1;
+        long day = random.nextLong(daysInMonth(month)) + 1;
 
         idNumber += year * 1_000_000_000;
         idNumber += month * 1_000_000_0;
         idNumber += day * 1_000_00;
-        idNumber += RAND.nextLong(10000) * 10;
+        idNumber += random.nextLong(10000) * 10;
         idNumber += controlDigit(idNumber);
 
         return idNumber;
@@ -1,38 +1,40 @@
 package lottery.player;
 
 import lottery.utility.Formatter;
-import lottery.ticket.TicketID;
 import lottery.ticket.Ticket;
 import lottery.exceptions.BadDataException;
+import lottery.utility.RandomSource;
+import lottery.utility.LongObjectMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.random.RandomGenerator;
 
 public abstract class Player {
 
     protected long balance;
     protected final PersonalInfo personalInfo;
+    protected final RandomGenerator random;
 
-    protected Map<TicketID, Ticket> ownedTickets;
+    protected LongObjectMap<Ticket> ownedTickets;
 
     public Player(PersonalInfo personalInfo, long balance) {
         if (balance < 0) throw new BadDataException("Player can't have a negative balance.");
 
         this.personalInfo = personalInfo;
         this.balance = balance;
-        ownedTickets = new HashMap<>();
+        this.random = RandomSource.split();
+        ownedTickets = new LongObjectMap<>();
     }
 
     public abstract void buyTicket();
 
     public void collectTicket(Ticket ticket) {
-        ticket.ticketID().retailer().givePrize(this, ticket);
+        ticket.retailer().givePrize(this, ticket);
     }
 
     public void collectAllTickets() {
-        List<Ticket> toCollect = new ArrayList<>(ownedTickets.values());
+        List<Ticket> toCollect = ownedTickets();
 
         for (Ticket ticket : toCollect) {
             collectTicket(ticket);
@@ -42,7 +44,7 @@ public abstract class Player {
     public void collectAllFinishedTickets() {
         List<Ticket> toCollect = new ArrayList<>();
 
-        for (Ticket ticket : ownedTickets.values()) {
+        for (Ticket ticket : ownedTickets()) {
             if (ticket.allDrawsDone()) {
                 toCollect.add(ticket);
             }
@@ -55,31 +57,35 @@ public abstract class Player {
 
     @Override
     public String toString() {
-        return personalInfo.toString() + "\nBalance: " + Formatter.centsToString(balance);
+        return personalInfo.toString() + "\nBalance: " + Formatter.centsToString(balance());
     }
 
-    public boolean tryToPay(long amount) {
+    // Retailer actors may sell to or pay out to the same player at once.
+    public synchronized boolean tryToPay(long amount) {
         if (amount < 0) throw new BadDataException("Amount can't be negative.");
         if (amount > balance) return false;
         balance -= amount;
         return true;
     }
-    public void receiveAmount(long amount) {
+    public synchronized void receiveAmount(long amount) {
         balance += amount;
     }
 
-    public void addTicket(Ticket ticket) {
-        ownedTickets.put(ticket.ticketID(), ticket);
+    public synchronized void addTicket(Ticket ticket) {
+        ownedTickets.put(ticket.ticketID().key(), ticket);
     }
-    public void removeTicket(Ticket ticket) {
-        ownedTickets.remove(ticket.ticketID());
+    public synchronized void removeTicket(Ticket ticket) {
+        ownedTickets.remove(ticket.ticketID().key());
     }
 
     public PersonalInfo personalInfo() {
         return personalInfo;
     }
-    public long balance() {
+    public synchronized long balance() {
         return balance;
     }
-    public List<Ticket> ownedTickets() { return new ArrayList<>(ownedTickets.values()); }
+    public RandomGenerator random() {
+        return random;
+    }
+    public synchronized List<Ticket> ownedTickets() { return ownedTickets.values(); }
 }
\ No newline at end of file
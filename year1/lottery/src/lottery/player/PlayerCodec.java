@@ -0,0 +1,113 @@
+package lottery.player;
+
+import lottery.exceptions.BadDataException;
+import lottery.infrastructure.LotteryHeadquarters;
+import lottery.infrastructure.Retailer;
+import lottery.ticket.SixNumbers;
+import lottery.ticket.Slip;
+import lottery.utility.BinaryInput;
+import lottery.utility.BinaryOutput;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Players in checkpoints: who they are, their balance and what they'll do next, but not their tickets,
+// which the retailers remember. Retailers are written by number, random streams aren't written at all.
+public final class PlayerCodec {
+
+    private static final int RANDOM = 0;
+    private static final int MINIMALIST = 1;
+    private static final int SAME_NUMBERS = 2;
+    private static final int SAME_SLIP = 3;
+
+    private PlayerCodec() {
+        throw new AssertionError("Utility class, should not be instantiated.");
+    }
+
+    public static void write(BinaryOutput out, Player player) {
+        out.putByte(typeOf(player));
+        out.putString(player.personalInfo.name());
+        out.putString(player.personalInfo.surname());
+        out.putLong(player.personalInfo.idNumber());
+        out.putLong(player.balance());
+
+        if (player instanceof PlayerMinimalist minimalist) {
+            out.putInt(minimalist.favoriteRetailer().retailerNumber());
+        } else if (player instanceof PlayerRegular regular) {
+            writeSlip(out, regular.regularSlip);
+            out.putInt(regular.favoriteRetailers.size());
+            for (Retailer retailer : regular.favoriteRetailers) {
+                out.putInt(retailer.retailerNumber());
+            }
+            out.putInt(regular.lastRetailerIndex);
+            if (player instanceof PlayerSameSlip sameSlip) {
+                out.putInt(sameSlip.ticketBuyingDelay());
+                out.putInt(sameSlip.lastDrawNumber());
+            }
+        }
+    }
+
+    private static int typeOf(Player player) {
+        if (player.getClass() == PlayerRandom.class) return RANDOM;
+        if (player.getClass() == PlayerMinimalist.class) return MINIMALIST;
+        if (player.getClass() == PlayerSameNumbers.class) return SAME_NUMBERS;
+        if (player.getClass() == PlayerSameSlip.class) return SAME_SLIP;
+        throw new BadDataException("Players of type " + player.getClass().getSimpleName() + " can't be checkpointed.");
+    }
+
+    private static void writeSlip(BinaryOutput out, Slip slip) {
+        out.putByte(slip.drawCount());
+        out.putByte(slip.isQuickPick() ? 1 : 0);
+        out.putByte(slip.betCount());
+        int[] ranks = slip.betRanks();
+        out.putInts(ranks, 0, ranks.length);
+    }
+
+    public static Player read(BinaryInput in, LotteryHeadquarters headquarters) {
+        int type = in.getByte();
+        PersonalInfo personalInfo = new PersonalInfo(in.getString(), in.getString(), in.getLong());
+        long balance = in.getLong();
+
+        Player player;
+        if (type == RANDOM) {
+            player = new PlayerRandom(personalInfo, headquarters);
+            player.balance = balance;
+        } else if (type == MINIMALIST) {
+            player = new PlayerMinimalist(personalInfo, balance, headquarters.getRetailer(in.getInt() - 1));
+        } else if (type == SAME_NUMBERS || type == SAME_SLIP) {
+            Slip slip = readSlip(in);
+            List<Retailer> retailers = new ArrayList<>();
+            for (int i = in.getInt(); i > 0; i--) {
+                retailers.add(headquarters.getRetailer(in.getInt() - 1));
+            }
+            int lastRetailerIndex = in.getInt();
+
+            PlayerRegular regular;
+            if (type == SAME_NUMBERS) {
+                regular = new PlayerSameNumbers(personalInfo, balance, slip.bets().get(0), retailers);
+            } else {
+                PlayerSameSlip sameSlip = new PlayerSameSlip(personalInfo, balance, slip, retailers, in.getInt());
+                sameSlip.setLastDrawNumber(in.getInt());
+                regular = sameSlip;
+            }
+            regular.lastRetailerIndex = lastRetailerIndex;
+            player = regular;
+        } else {
+            throw new BadDataException("Unknown player type in checkpoint.");
+        }
+        return player;
+    }
+
+    private static Slip readSlip(BinaryInput in) {
+        int drawCount = in.getByte();
+        boolean quickPick = in.getByte() == 1;
+        int betCount = in.getByte();
+        if (quickPick) return Slip.quickPick(betCount, drawCount);
+
+        List<SixNumbers> bets = new ArrayList<>(betCount);
+        for (int rank : in.getInts(betCount)) {
+            bets.add(SixNumbers.fromRank(rank));
+        }
+        return new Slip(bets, drawCount);
+    }
+}
\ No newline at end of file
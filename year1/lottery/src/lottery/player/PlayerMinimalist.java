@@ -15,4 +15,8 @@ public class PlayerMinimalist extends Player {
     public void buyTicket() {
         favoriteRetailer.buyRandomTicket(this, 1, 1);
     }
+
+    Retailer favoriteRetailer() {
+        return favoriteRetailer;
+    }
 }
\ No newline at end of file
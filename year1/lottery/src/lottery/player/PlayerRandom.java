@@ -2,31 +2,40 @@ package lottery.player;
 
 import lottery.infrastructure.LotteryHeadquarters;
 import lottery.infrastructure.Retailer;
+import lottery.ticket.Slip;
+import lottery.utility.RandomSource;
 
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
 
 public class PlayerRandom extends Player {
 
-    private static final Random RAND = new Random();
+    private final LotteryHeadquarters headquarters;
 
     public PlayerRandom(PersonalInfo personalInfo) {
-        super(personalInfo, RAND.nextInt(1_000_000_00));
+        this(personalInfo, LotteryHeadquarters.getInstance());
+    }
+
+    public PlayerRandom(PersonalInfo personalInfo, LotteryHeadquarters headquarters) {
+        super(personalInfo, RandomSource.current().nextInt(1_000_000_00));
+        this.headquarters = headquarters;
     }
 
     @Override
     public void buyTicket() {
         Retailer retailer = chooseRandomRetailer();
-        int ticketCount = RAND.nextInt(100) + 1;
+        int ticketCount = random.nextInt(100) + 1;
+        List<Slip> slips = new ArrayList<>(ticketCount);
         for (int i = 0; i < ticketCount; i++) {
-            int betCount = RAND.nextInt(8) + 1;
-            int drawCount = RAND.nextInt(10) + 1;
-            retailer.buyRandomTicket(this, betCount, drawCount);
+            int betCount = random.nextInt(8) + 1;
+            int drawCount = random.nextInt(10) + 1;
+            slips.add(Slip.quickPick(betCount, drawCount));
         }
+        retailer.buyTickets(this, slips);
     }
 
     private Retailer chooseRandomRetailer() {
-        LotteryHeadquarters headquarters = LotteryHeadquarters.getInstance();
-        int retailerIndex = RAND.nextInt(headquarters.lastRetailerNumber());
+        int retailerIndex = random.nextInt(headquarters.lastRetailerNumber());
         return headquarters.getRetailer(retailerIndex);
     }
 }
\ No newline at end of file
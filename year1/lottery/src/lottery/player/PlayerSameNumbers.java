@@ -25,7 +25,7 @@ public class PlayerSameNumbers extends PlayerRegular {
     }
 
     private boolean allTicketsDone() {
-        for (Ticket ticket : ownedTickets.values()) {
+        for (Ticket ticket : ownedTickets()) {
             if (!ticket.allDrawsDone()) return false;
         }
         return true;
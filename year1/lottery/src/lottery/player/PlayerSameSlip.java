@@ -23,7 +23,7 @@ public class PlayerSameSlip extends PlayerRegular {
 
     @Override
     public void buyTicket() {
-        LotteryHeadquarters headquarters = LotteryHeadquarters.getInstance();
+        LotteryHeadquarters headquarters = favoriteRetailers.get(0).headquarters();
         if (headquarters.lastDrawNumber() % ticketBuyingDelay !=
                 lastDrawNumber % ticketBuyingDelay && lastDrawNumber != 0) {
             return;
@@ -31,4 +31,14 @@ public class PlayerSameSlip extends PlayerRegular {
         lastDrawNumber = headquarters.lastDrawNumber();
         nextRetailer().buyTicketWithSlip(this, regularSlip);
     }
+
+    int ticketBuyingDelay() {
+        return ticketBuyingDelay;
+    }
+    int lastDrawNumber() {
+        return lastDrawNumber;
+    }
+    void setLastDrawNumber(int lastDrawNumber) {
+        this.lastDrawNumber = lastDrawNumber;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package lottery.report;
+
+import lottery.player.PersonalInfo;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// Tagged big-endian records after a short header, the stream simply ends after the last one.
+public class BinaryReportSink implements ReportSink {
+
+    static final int MAGIC = 0x4C4F5452;
+    static final int VERSION = 1;
+
+    static final int DRAW = 1;              // number, mask, 4 winner counts, 4 pools, 4 prizes
+    static final int BALANCE = 2;           // headquarters balance
+    static final int FINANCES = 3;          // state tax income, subsidies
+    static final int MILLIONAIRE = 4;       // name, surname, id, balance
+    static final int MILLIONAIRES_DONE = 5; // count
+
+    private final ReportBuffer out;
+
+    public BinaryReportSink(OutputStream out) {
+        this.out = new ReportBuffer(out, StandardCharsets.UTF_8);
+        this.out.putInt(MAGIC).putInt(VERSION);
+    }
+
+    @Override
+    public void draw(int drawNumber, long numbersMask, int[] hitGrades, long[] gradePools, long[] prizes) {
+        out.putByte(DRAW).putInt(drawNumber).putLong(numbersMask);
+        for (int hits : hitGrades) {
+            out.putInt(hits);
+        }
+        for (long pool : gradePools) {
+            out.putLong(pool);
+        }
+        for (long prize : prizes) {
+            out.putLong(prize);
+        }
+    }
+
+    @Override
+    public void headquartersBalance(long balance) {
+        out.putByte(BALANCE).putLong(balance);
+    }
+
+    @Override
+    public void stateFinances(long taxIncome, long subsidies) {
+        out.putByte(FINANCES).putLong(taxIncome).putLong(subsidies);
+    }
+
+    @Override
+    public void millionaire(PersonalInfo info, long balance) {
+        out.putByte(MILLIONAIRE).putString(info.name()).putString(info.surname())
+                .putLong(info.idNumber()).putLong(balance);
+    }
+
+    @Override
+    public void millionairesDone(int count) {
+        out.putByte(MILLIONAIRES_DONE).putInt(count);
+    }
+
+    @Override
+    public void separator() {
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
\ No newline at end of file
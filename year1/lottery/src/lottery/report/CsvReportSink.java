@@ -0,0 +1,93 @@
+package lottery.report;
+
+import lottery.player.PersonalInfo;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// One table per kind of record, each under its own header row. Amounts are in cents.
+public class CsvReportSink implements ReportSink {
+
+    private static final String DRAW_HEADER = "draw,number_1,number_2,number_3,number_4,number_5,number_6,"
+            + "winners_1,winners_2,winners_3,winners_4,pool_1,pool_2,pool_3,pool_4,prize_1,prize_2,prize_3,prize_4";
+    private static final String FINANCES_HEADER = "headquarters_balance,state_tax_income,state_subsidies";
+    private static final String MILLIONAIRES_HEADER = "name,surname,id,balance";
+
+    private final ReportBuffer out;
+    private String currentHeader;
+    private long balance;
+
+    public CsvReportSink(OutputStream out) {
+        this.out = new ReportBuffer(out, StandardCharsets.UTF_8);
+        this.currentHeader = null;
+    }
+
+    private void table(String header) {
+        if (header.equals(currentHeader)) return;
+        if (currentHeader != null) out.newLine();
+        out.append(header).newLine();
+        currentHeader = header;
+    }
+
+    @Override
+    public void draw(int drawNumber, long numbersMask, int[] hitGrades, long[] gradePools, long[] prizes) {
+        table(DRAW_HEADER);
+        out.append(drawNumber);
+        for (long rest = numbersMask; rest != 0; rest &= rest - 1) {
+            out.append(',').append(Long.numberOfTrailingZeros(rest));
+        }
+        for (int hits : hitGrades) {
+            out.append(',').append(hits);
+        }
+        for (long pool : gradePools) {
+            out.append(',').append(pool);
+        }
+        for (long prize : prizes) {
+            out.append(',').append(prize);
+        }
+        out.newLine();
+    }
+
+    // The headquarters balance waits for the state's figures, they share a row.
+    @Override
+    public void headquartersBalance(long balance) {
+        this.balance = balance;
+    }
+
+    @Override
+    public void stateFinances(long taxIncome, long subsidies) {
+        table(FINANCES_HEADER);
+        out.append(balance).append(',').append(taxIncome).append(',').append(subsidies).newLine();
+    }
+
+    @Override
+    public void millionaire(PersonalInfo info, long balance) {
+        table(MILLIONAIRES_HEADER);
+        appendField(info.name());
+        out.append(',');
+        appendField(info.surname());
+        out.append(',').appendZeroPadded(info.idNumber(), 11).append(',').append(balance).newLine();
+    }
+
+    private void appendField(String field) {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+            out.append(field);
+            return;
+        }
+        out.append('"').append(field.replace("\"", "\"\"")).append('"');
+    }
+
+    @Override
+    public void millionairesDone(int count) {
+        table(MILLIONAIRES_HEADER);
+    }
+
+    @Override
+    public void separator() {
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package lottery.report;
+
+import lottery.exceptions.BadDataException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+// Bytes gathered in one reusable array and written out when it fills up.
+// Numbers and amounts are turned into digits in place, nothing is allocated per value.
+final class ReportBuffer {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LONG_DIGITS = 20;
+
+    private final OutputStream out;
+    private final Charset charset;
+    private final byte[] buffer;
+    private final byte[] digits;
+    private int position;
+
+    ReportBuffer(OutputStream out, Charset charset) {
+        this.out = out;
+        this.charset = charset;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.digits = new byte[MAX_LONG_DIGITS];
+        this.position = 0;
+    }
+
+    private void ensure(int bytes) {
+        if (BUFFER_SIZE - position < bytes) flush();
+    }
+
+    ReportBuffer append(char ascii) {
+        ensure(1);
+        buffer[position++] = (byte) ascii;
+        return this;
+    }
+
+    // Names have Polish letters in them. UTF-8 is encoded by hand, other charsets only past the first non-ASCII char.
+    ReportBuffer append(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            ensure(4);
+            char c = text.charAt(i);
+            if (c >= 0x80 && charset != StandardCharsets.UTF_8) {
+                appendBytes(text.substring(i).getBytes(charset));
+                return this;
+            }
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return this;
+    }
+
+    private void appendBytes(byte[] bytes) {
+        for (byte b : bytes) {
+            ensure(1);
+            buffer[position++] = b;
+        }
+    }
+
+    ReportBuffer append(long number) {
+        return appendZeroPadded(number, 1);
+    }
+
+    ReportBuffer appendZeroPadded(long number, int width) {
+        ensure(MAX_LONG_DIGITS + 1 + width);
+        if (number < 0) buffer[position++] = '-';
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + Math.abs(number % 10));
+            number /= 10;
+        } while (number != 0);
+        for (int i = count; i < width; i++) {
+            buffer[position++] = '0';
+        }
+        while (count > 0) {
+            buffer[position++] = digits[--count];
+        }
+        return this;
+    }
+
+    // Same as Formatter.centsToString.
+    ReportBuffer appendCents(long centCount) {
+        append('$');
+        if (centCount < 0) append('-');
+        long dollars = Math.abs(centCount / 100);
+        long cents = Math.abs(centCount % 100);
+        return appendZeroPadded(dollars, 1).append('.').appendZeroPadded(cents, 2);
+    }
+
+    ReportBuffer newLine() {
+        return append('\n');
+    }
+
+    ReportBuffer putByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+    ReportBuffer putInt(int value) {
+        ensure(4);
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+    ReportBuffer putLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+    // Length in bytes, then the UTF-8 bytes.
+    ReportBuffer putString(String value) {
+        if (charset != StandardCharsets.UTF_8) throw new BadDataException("Binary strings are always UTF-8.");
+        int maxBytes = 4 + 4 * value.length();
+        if (maxBytes > BUFFER_SIZE) throw new BadDataException("String too long for the report buffer.");
+        ensure(maxBytes); // So the string doesn't get flushed apart from its length.
+        int lengthPosition = position;
+        position += 4;
+        int start = position;
+        append(value);
+        int length = position - start;
+        buffer[lengthPosition] = (byte) (length >>> 24);
+        buffer[lengthPosition + 1] = (byte) (length >>> 16);
+        buffer[lengthPosition + 2] = (byte) (length >>> 8);
+        buffer[lengthPosition + 3] = (byte) length;
+        return this;
+    }
+
+    void flush() {
+        try {
+            out.write(buffer, 0, position);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write report.", e);
+        }
+        position = 0;
+    }
+}
\ No newline at end of file
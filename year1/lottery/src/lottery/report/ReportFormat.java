@@ -0,0 +1,17 @@
+package lottery.report;
+
+import java.io.OutputStream;
+
+public enum ReportFormat {
+    TEXT,
+    CSV,
+    BINARY;
+
+    public ReportSink open(OutputStream out) {
+        return switch (this) {
+            case TEXT -> new TextReportSink(out);
+            case CSV -> new CsvReportSink(out);
+            case BINARY -> new BinaryReportSink(out);
+        };
+    }
+}
\ No newline at end of file
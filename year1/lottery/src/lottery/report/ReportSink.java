@@ -0,0 +1,24 @@
+package lottery.report;
+
+import lottery.player.PersonalInfo;
+
+// Receives a report piece by piece, in the order it's produced.
+// Arrays handed over belong to the caller and are reused for the next call, a sink must not keep them.
+public interface ReportSink {
+
+    void draw(int drawNumber, long numbersMask, int[] hitGrades, long[] gradePools, long[] prizes);
+
+    void headquartersBalance(long balance);
+
+    void stateFinances(long taxIncome, long subsidies);
+
+    void millionaire(PersonalInfo info, long balance);
+
+    // Called once after the last millionaire, with how many there were.
+    void millionairesDone(int count);
+
+    // Ends a section of the report, only layouts meant for reading show it.
+    void separator();
+
+    void flush();
+}
\ No newline at end of file
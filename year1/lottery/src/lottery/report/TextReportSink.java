@@ -0,0 +1,95 @@
+package lottery.report;
+
+import lottery.player.PersonalInfo;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+// The layout the simulation has always printed.
+public class TextReportSink implements ReportSink {
+
+    private static final String[] GRADES = {"I.   ", "II.  ", "III. ", "IV.  "};
+
+    private final ReportBuffer out;
+    private boolean millionairesStarted;
+
+    // In the platform charset, like System.out.
+    public TextReportSink(OutputStream out) {
+        this(out, Charset.defaultCharset());
+    }
+
+    public TextReportSink(OutputStream out, Charset charset) {
+        this.out = new ReportBuffer(out, charset);
+        this.millionairesStarted = false;
+    }
+
+    @Override
+    public void draw(int drawNumber, long numbersMask, int[] hitGrades, long[] gradePools, long[] prizes) {
+        out.append("Draw no. ").append(drawNumber).append("\nResults: ");
+        for (long rest = numbersMask; rest != 0; rest &= rest - 1) {
+            int number = Long.numberOfTrailingZeros(rest);
+            if (number < 10) out.append(' ');
+            out.append(number).append(' ');
+        }
+        out.newLine().append("Combined prize pools:").newLine();
+        for (int i = 0; i < 4; i++) {
+            out.append(GRADES[i]).appendCents(gradePools[i]).newLine();
+        }
+        out.append("Number of winners:").newLine();
+        for (int i = 0; i < 4; i++) {
+            out.append(GRADES[i]).append(hitGrades[i]).newLine();
+        }
+        out.append("Prize amounts:").newLine();
+        for (int i = 0; i < 4; i++) {
+            out.append(GRADES[i]);
+            if (prizes[i] == 0) {
+                out.append("no hit").newLine();
+            } else {
+                out.appendCents(prizes[i]).newLine();
+            }
+        }
+    }
+
+    @Override
+    public void headquartersBalance(long balance) {
+        out.append("Lottery headquarters have ").appendCents(balance).newLine();
+    }
+
+    @Override
+    public void stateFinances(long taxIncome, long subsidies) {
+        out.append("The state received ").appendCents(taxIncome)
+                .append("\nThe state gave the lottery headquarters ").appendCents(subsidies)
+                .append(" in subsidies.").newLine();
+    }
+
+    @Override
+    public void millionaire(PersonalInfo info, long balance) {
+        startMillionaires();
+        out.append(info.name()).append(' ').append(info.surname())
+                .append("\nID: ").appendZeroPadded(info.idNumber(), 11)
+                .append("\nBalance: ").appendCents(balance).newLine();
+    }
+
+    @Override
+    public void millionairesDone(int count) {
+        startMillionaires();
+        if (count == 0) out.append("nobody became a millionaire :(").newLine();
+        millionairesStarted = false;
+    }
+
+    private void startMillionaires() {
+        if (millionairesStarted) return;
+        out.append("Millionaires:").newLine();
+        millionairesStarted = true;
+    }
+
+    @Override
+    public void separator() {
+        out.newLine();
+    }
+
+    @Override
+    public void flush() {
+        out.flush();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+package lottery.ticket;
+
+import lottery.exceptions.BadDataException;
+
+public final class BetRanks {
+
+    public static final int RANK_COUNT = 13_983_816;
+
+    private static final int MAX_VALUE_OF_NUMBER = 49;
+    private static final int NUMBERS_IN_BET = 6;
+    private static final long VALID_NUMBERS = ((1L << MAX_VALUE_OF_NUMBER) - 1) << 1;
+    private static final int[][] BINOMIALS = binomials();
+
+    private BetRanks() {
+        throw new AssertionError("Utility class, should not be instantiated.");
+    }
+
+    private static int[][] binomials() {
+        int[][] binomials = new int[MAX_VALUE_OF_NUMBER + 1][NUMBERS_IN_BET + 1];
+        for (int n = 0; n <= MAX_VALUE_OF_NUMBER; n++) {
+            binomials[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, NUMBERS_IN_BET); k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+        return binomials;
+    }
+
+    // Combinadic rank: numbers c1 < ... < c6 (shifted to 0-48) map to C(c1, 1) + ... + C(c6, 6).
+    public static int rankOf(long mask) {
+        if ((mask & ~VALID_NUMBERS) != 0 || Long.bitCount(mask) != NUMBERS_IN_BET)
+            throw new BadDataException("Only a correct set of numbers has a rank.");
+
+        int rank = 0;
+        int k = 1;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            rank += BINOMIALS[Long.numberOfTrailingZeros(rest) - 1][k++];
+        }
+        return rank;
+    }
+
+    public static long maskOf(int rank) {
+        if (rank < 0 || rank >= RANK_COUNT) throw new BadDataException("Rank out of range.");
+
+        long mask = 0;
+        int position = MAX_VALUE_OF_NUMBER - 1;
+        for (int k = NUMBERS_IN_BET; k > 0; k--) {
+            while (BINOMIALS[position][k] > rank) {
+                position--;
+            }
+            rank -= BINOMIALS[position][k];
+            mask |= 1L << (position + 1);
+            position--;
+        }
+        return mask;
+    }
+
+    public static int hitCount(int rank, long mask) {
+        return Long.bitCount(maskOf(rank) & mask);
+    }
+
+    public static int hitCount(int rank, int otherRank) {
+        return Long.bitCount(maskOf(rank) & maskOf(otherRank));
+    }
+}
\ No newline at end of file
@@ -1,64 +1,128 @@
 package lottery.ticket;
 
 import lottery.exceptions.BadDataException;
+import lottery.utility.IntIntMap;
+import lottery.utility.RandomSource;
 
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
-public record SixNumbers(Set<Integer> numbers) {
+public record SixNumbers(long mask) {
 
-    private static final Random RAND = new Random();
-    private static final int MAX_NUMBER_OF_SETS = 13_983_816;
+    private static final int MAX_NUMBER_OF_SETS = BetRanks.RANK_COUNT;
     private static final int MAX_VALUE_OF_NUMBER = 49;
+    private static final int SHORT_LIST_LENGTH = 16;
 
-    public SixNumbers {
-        numbers = new TreeSet<>(numbers);
+    // Bit n stands for number n, bit 0 marks any number outside 1-49.
+    private static final long OUT_OF_RANGE = 1L;
+    private static final long VALID_NUMBERS = ((1L << MAX_VALUE_OF_NUMBER) - 1) << 1;
+
+    public SixNumbers(Set<Integer> numbers) {
+        this(maskOf(numbers));
     }
 
+    private static long maskOf(Set<Integer> numbers) {
+        long mask = 0;
+        for (int number : numbers) {
+            if (number < 1 || number > MAX_VALUE_OF_NUMBER) {
+                mask |= OUT_OF_RANGE;
+            } else {
+                mask |= 1L << number;
+            }
+        }
+        return mask;
+    }
+
+    // Floyd's sampling: exactly six draws from the generator, no retries.
     public static SixNumbers random() {
-        Set<Integer> randomNumbers = new TreeSet<>();
-        while (randomNumbers.size() < 6) {
-            randomNumbers.add(RAND.nextInt(MAX_VALUE_OF_NUMBER) + 1);
+        return random(RandomSource.current());
+    }
+
+    public static SixNumbers random(RandomGenerator random) {
+        long mask = 0;
+        for (int number = MAX_VALUE_OF_NUMBER - 5; number <= MAX_VALUE_OF_NUMBER; number++) {
+            long picked = 1L << (random.nextInt(number) + 1);
+            mask |= (mask & picked) == 0 ? picked : 1L << number;
         }
-        return new SixNumbers(randomNumbers);
+        return new SixNumbers(mask);
     }
 
     public static List<SixNumbers> randomList(int setCount) {
+        int[] ranks = randomRanks(setCount);
+        List<SixNumbers> randomList = new ArrayList<>(ranks.length);
+        for (int rank : ranks) {
+            randomList.add(fromRank(rank));
+        }
+        return randomList;
+    }
+
+    // Floyd's sampling over combination ranks, setCount draws from the generator whatever the count.
+    public static int[] randomRanks(int setCount) {
+        return randomRanks(setCount, RandomSource.current());
+    }
+
+    public static int[] randomRanks(int setCount, RandomGenerator random) {
         if (setCount < 1) throw new BadDataException("Can't get a negative number of sets.");
         if (setCount > MAX_NUMBER_OF_SETS)
             throw new BadDataException("Not enough unique sets of numbers 1-49.");
 
-        Set<SixNumbers> randomList = new HashSet<>();
-        while (randomList.size() < setCount) {
-            randomList.add(random());
+        int[] ranks = new int[setCount];
+        // Sized by setCount, so a long list doesn't pay for a bit per possible rank.
+        IntIntMap chosen = setCount > SHORT_LIST_LENGTH ? new IntIntMap(setCount) : null;
+        for (int i = 0; i < setCount; i++) {
+            int bound = MAX_NUMBER_OF_SETS - setCount + i;
+            int rank = random.nextInt(bound + 1);
+            if (isChosen(rank, ranks, i, chosen)) rank = bound;
+
+            ranks[i] = rank;
+            if (chosen != null) chosen.put(rank, 1);
         }
+        return ranks;
+    }
+
+    private static boolean isChosen(int rank, int[] ranks, int chosenCount, IntIntMap chosen) {
+        if (chosen != null) return chosen.containsKey(rank);
+        for (int i = 0; i < chosenCount; i++) {
+            if (ranks[i] == rank) return true;
+        }
+        return false;
+    }
+
+    public static SixNumbers fromRank(int rank) {
+        return new SixNumbers(BetRanks.maskOf(rank));
+    }
 
-        return new ArrayList<>(randomList);
+    public int rank() {
+        if (!areNumbersCorrect()) throw new BadDataException("Only a correct set of numbers has a rank.");
+        return BetRanks.rankOf(mask);
+    }
+
+    public Set<Integer> numbers() {
+        Set<Integer> numbers = new TreeSet<>();
+        for (long rest = mask & VALID_NUMBERS; rest != 0; rest &= rest - 1) {
+            numbers.add(Long.numberOfTrailingZeros(rest));
+        }
+        return numbers;
     }
 
     public int hitCount(SixNumbers randomNumbers) {
-        Set<Integer> intersection = new TreeSet<>(this.numbers());
-        intersection.retainAll(randomNumbers.numbers());
-        return intersection.size();
+        return Long.bitCount(this.mask & randomNumbers.mask() & VALID_NUMBERS);
     }
 
     public boolean areNumbersCorrect() {
-        if (numbers.size() != 6) return false;
-        for (int number : numbers) {
-            if (number < 1 || number > MAX_VALUE_OF_NUMBER) return false;
-        }
-        return true;
+        return (mask & ~VALID_NUMBERS) == 0 && Long.bitCount(mask) == 6;
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int number : numbers) {
-            sb.append(String.format("%2d ", number));
+        for (long rest = mask & VALID_NUMBERS; rest != 0; rest &= rest - 1) {
+            int number = Long.numberOfTrailingZeros(rest);
+            if (number < 10) sb.append(' ');
+            sb.append(number).append(' ');
         }
         return sb.toString();
     }
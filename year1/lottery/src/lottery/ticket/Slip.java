@@ -2,50 +2,116 @@ package lottery.ticket;
 
 import lottery.exceptions.BadDataException;
 
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 import java.util.List;
 import java.util.ArrayList;
 
-public record Slip(List<SixNumbers> bets, int drawCount) {
+public final class Slip {
 
     private static final long BET_PRIZE = 3_00;
 
+    private static final int[] NO_RANKS = new int[0];
+
+    private final int[] betRanks;
+    private final int betCount;
+    private final int drawCount;
+    private final boolean quickPick;
+
     public Slip(List<SixNumbers> bets, int drawCount) {
-        List<SixNumbers> verified = verifyBets(bets);
-        if (verified.isEmpty()) throw new BadDataException("No correct bet was given.");
-        if (verified.size() > 8) throw new BadDataException("Too many bets were given, limit is 8.");
+        this(verifyBets(bets), 0, drawCount);
+    }
+
+    // A quick pick has no ranks and a bet count of its own, the numbers are chosen when the ticket is sold.
+    private Slip(int[] betRanks, int quickPickCount, int drawCount) {
+        this.quickPick = quickPickCount > 0;
+        this.betCount = quickPick ? quickPickCount : betRanks.length;
+        if (betCount == 0) throw new BadDataException("No correct bet was given.");
+        if (betCount > 8) throw new BadDataException("Too many bets were given, limit is 8.");
         if (drawCount < 1 || drawCount > 10)
             throw new BadDataException("Too many draws were given, keep it between 1-10.");
 
-        this.bets = List.copyOf(verified);
+        this.betRanks = quickPick ? NO_RANKS : betRanks;
         this.drawCount = drawCount;
     }
 
-    private List<SixNumbers> verifyBets(List<SixNumbers> bets) {
-        List<SixNumbers> verified = new ArrayList<>();
+    public static Slip random(int betCount, int drawCount) {
+        return new Slip(SixNumbers.randomRanks(betCount), 0, drawCount);
+    }
+    public static Slip random(int betCount, int drawCount, RandomGenerator random) {
+        return new Slip(SixNumbers.randomRanks(betCount, random), 0, drawCount);
+    }
+
+    public static Slip quickPick(int betCount, int drawCount) {
+        if (betCount < 1) throw new BadDataException("No correct bet was given.");
+        return new Slip(NO_RANKS, betCount, drawCount);
+    }
+
+    // The same slip with random numbers filled in if it's a quick pick.
+    public Slip pickNumbers(RandomGenerator random) {
+        return quickPick ? random(betCount, drawCount, random) : this;
+    }
+
+    private static int[] verifyBets(List<SixNumbers> bets) {
+        int[] verified = new int[bets.size()];
+        int count = 0;
         for (SixNumbers bet : bets) {
             if (bet.areNumbersCorrect()) {
-                verified.add(bet);
+                verified[count++] = bet.rank();
             }
         }
-        return verified;
+        return Arrays.copyOf(verified, count);
     }
 
     @Override
     public String toString() {
+        if (quickPick) return "Quick pick: " + betCount + " bets\nDraw count: " + drawCount;
+
         StringBuilder sb = new StringBuilder("Bets:\n");
         int i = 1;
-        for (SixNumbers bet : bets) {
-            sb.append(i++).append(". ").append(bet).append("\n");
+        for (int rank : betRanks) {
+            sb.append(i++).append(". ").append(SixNumbers.fromRank(rank)).append("\n");
         }
         sb.append("Draw count: ").append(drawCount);
         return sb.toString();
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Slip other = (Slip) o;
+        return this.drawCount == other.drawCount() && this.betCount == other.betCount()
+                && this.quickPick == other.isQuickPick() && Arrays.equals(this.betRanks, other.betRanks);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(betRanks) + betCount) + drawCount;
+    }
+
     public List<SixNumbers> bets() {
-        return List.copyOf(bets);
+        List<SixNumbers> bets = new ArrayList<>(betRanks.length);
+        for (int rank : betRanks) {
+            bets.add(SixNumbers.fromRank(rank));
+        }
+        return bets;
+    }
+    public int[] betRanks() {
+        return betRanks.clone();
+    }
+    public int betCount() {
+        return betCount;
+    }
+    public boolean isQuickPick() {
+        return quickPick;
+    }
+    public int drawCount() {
+        return drawCount;
     }
 
     public long price() {
-        return (long) bets.size() * drawCount * BET_PRIZE;
+        return (long) betCount * drawCount * BET_PRIZE;
     }
 }
\ No newline at end of file
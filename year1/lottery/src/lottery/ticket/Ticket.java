@@ -4,39 +4,61 @@ import lottery.utility.Formatter;
 import lottery.infrastructure.LotteryHeadquarters;
 import lottery.infrastructure.Retailer;
 import lottery.infrastructure.Draw;
+import lottery.infrastructure.GradeCounts;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Ticket {
 
-    private static final LotteryHeadquarters HEADQUARTERS = LotteryHeadquarters.getInstance();
-
+    private final LotteryHeadquarters headquarters;
     private final TicketID ticketID;
     private final int firstDrawNumber;
     private final int drawCount;
     private final long ticketPrice;
-    private final List<SixNumbers> bets;
-
-    public Ticket(Retailer retailer, Slip slip) {
-        HEADQUARTERS.incrementLastTicketNumber();
-        this.ticketID = new TicketID(HEADQUARTERS.lastTicketNumber(), retailer);
-        this.firstDrawNumber = HEADQUARTERS.lastDrawNumber() + 1;
-        this.bets = List.copyOf(slip.bets());
+    private final int[] betRanks;
+    private final int quickPickCount; // Bets whose numbers were never chosen, their wins are sampled.
+
+    public Ticket(Retailer retailer, Slip slip, int ticketNumber, int randomMarker) {
+        this.headquarters = retailer.headquarters();
+        this.ticketID = new TicketID(ticketNumber, retailer.retailerNumber(), randomMarker);
+        this.firstDrawNumber = headquarters.lastDrawNumber() + 1;
+        this.betRanks = slip.betRanks();
+        this.quickPickCount = slip.isQuickPick() ? slip.betCount() : 0;
         this.drawCount = slip.drawCount();
         this.ticketPrice = slip.price();
     }
 
+    // A ticket sold before, as its retailer remembers it.
+    public Ticket(Retailer retailer, TicketID ticketID, int firstDrawNumber, int drawCount, long ticketPrice,
+                  int[] betRanks, int quickPickCount) {
+        this.headquarters = retailer.headquarters();
+        this.ticketID = ticketID;
+        this.firstDrawNumber = firstDrawNumber;
+        this.drawCount = drawCount;
+        this.ticketPrice = ticketPrice;
+        this.betRanks = betRanks.clone();
+        this.quickPickCount = quickPickCount;
+    }
+
     public void countHits(Draw draw) {
+        GradeCounts counts = new GradeCounts();
+        countHits(draw, counts);
+        draw.registerHits(counts);
+    }
+
+    public void countHits(Draw draw, GradeCounts counts) {
         int drawNumber = draw.drawNumber();
         if (firstDrawNumber > drawNumber ||
                 firstDrawNumber + drawCount <= drawNumber) {
             return;
         }
 
-        for (SixNumbers bet : bets) {
-            int hitCount = bet.hitCount(draw.numbers());
+        long drawnMask = draw.numbers().mask();
+        for (int rank : betRanks) {
+            int hitCount = BetRanks.hitCount(rank, drawnMask);
             if (hitCount >= 3) {
-                draw.registerHit(prizeGrade(hitCount));
+                counts.record(prizeGrade(hitCount));
             }
         }
     }
@@ -46,7 +68,7 @@ public class Ticket {
     }
 
     public boolean allDrawsDone() {
-        return firstDrawNumber + drawCount - 1 <= HEADQUARTERS.lastDrawNumber();
+        return firstDrawNumber + drawCount - 1 <= headquarters.lastDrawNumber();
     }
 
     @Override
@@ -55,8 +77,12 @@ public class Ticket {
         sb.append("TICKET NO. ").append(ticketID).append("\n");
 
         int i = 1;
-        for (SixNumbers bet : bets) {
-            sb.append(i++).append(": ").append(bet).append("\n");
+        for (int rank : betRanks) {
+            sb.append(i++).append(": ").append(SixNumbers.fromRank(rank)).append("\n");
+        }
+
+        if (quickPickCount > 0) {
+            sb.append("QUICK PICK BETS: ").append(quickPickCount).append("\n");
         }
 
         sb.append("DRAW COUNT: ").append(drawCount).append("\nDRAWS' NUMBERS:\n");
@@ -85,6 +111,10 @@ public class Ticket {
     public TicketID ticketID() {
         return ticketID;
     }
+    // Looked up in the lottery the ticket was sold in.
+    public Retailer retailer() {
+        return headquarters.getRetailer(ticketID.retailerNumber() - 1);
+    }
     public int firstDrawNumber() {
         return firstDrawNumber;
     }
@@ -95,6 +125,19 @@ public class Ticket {
         return ticketPrice;
     }
     public List<SixNumbers> bets() {
-        return List.copyOf(bets);
+        List<SixNumbers> bets = new ArrayList<>(betRanks.length);
+        for (int rank : betRanks) {
+            bets.add(SixNumbers.fromRank(rank));
+        }
+        return bets;
+    }
+    public int[] betRanks() {
+        return betRanks.clone();
+    }
+    public int betCount() {
+        return betRanks.length + quickPickCount;
+    }
+    public int quickPickCount() {
+        return quickPickCount;
     }
 }
\ No newline at end of file
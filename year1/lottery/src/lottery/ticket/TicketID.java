@@ -1,30 +1,20 @@
 package lottery.ticket;
 
-import lottery.infrastructure.Retailer;
-
-import java.util.Objects;
-import java.util.Random;
-
 public class TicketID {
 
-    private final int ticketNumber;
-    private final int retailerNumber;
-    private final int randomMarker;
-    private final int controlSum;
-    private final Retailer retailer;
+    private static final int MARKER_BITS = 30; // Markers are below 10^9 < 2^30.
 
-    public TicketID(int ticketNumber, Retailer retailer) {
-        this.ticketNumber = ticketNumber;
-        this.retailerNumber = retailer.retailerNumber();
-        this.retailer = retailer;
+    // Ticket number in the high bits, random marker in the low ones.
+    private final long key;
+    private final int retailerNumber;
 
-        Random rand = new Random();
-        this.randomMarker = rand.nextInt(1_000_000_000);
-        this.controlSum = calculateControlSum();
+    public TicketID(int ticketNumber, int retailerNumber, int randomMarker) {
+        this.key = ((long) ticketNumber << MARKER_BITS) | randomMarker;
+        this.retailerNumber = retailerNumber;
     }
 
     private int calculateControlSum() {
-        return (sumOfDigits(ticketNumber) + sumOfDigits(retailerNumber) + sumOfDigits(randomMarker)) % 100;
+        return (sumOfDigits(ticketNumber()) + sumOfDigits(retailerNumber) + sumOfDigits(randomMarker())) % 100;
     }
 
     private int sumOfDigits(int number) {
@@ -38,9 +28,19 @@ public class TicketID {
 
     @Override
     public String toString() {
-        return ticketNumber + "-" + retailerNumber + "-" +
-                String.format("%09d", randomMarker) + "-" +
-                String.format("%02d", controlSum);
+        StringBuilder sb = new StringBuilder();
+        sb.append(ticketNumber()).append('-').append(retailerNumber).append('-');
+        appendZeroPadded(sb, randomMarker(), 9);
+        sb.append('-');
+        appendZeroPadded(sb, controlSum(), 2);
+        return sb.toString();
+    }
+
+    private static void appendZeroPadded(StringBuilder sb, int number, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (number < limit) sb.append('0');
+        }
+        sb.append(number);
     }
 
     @Override
@@ -49,28 +49,28 @@ public class TicketID {
         if (o == null || getClass() != o.getClass()) return false;
 
         TicketID other = (TicketID) o;
-        return this.ticketNumber == other.ticketNumber() && this.retailerNumber == other.retailerNumber()
-                && this.randomMarker == other.randomMarker() && this.controlSum == other.controlSum();
+        return this.key == other.key() && this.retailerNumber == other.retailerNumber();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(ticketNumber, retailerNumber, randomMarker, controlSum);
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) ^ retailerNumber;
     }
 
-    public Retailer retailer() {
-        return retailer;
+    public long key() {
+        return key;
     }
     public int ticketNumber() {
-        return ticketNumber;
+        return (int) (key >>> MARKER_BITS);
     }
     public int retailerNumber() {
         return retailerNumber;
     }
     public int randomMarker() {
-        return randomMarker;
+        return (int) (key & ((1L << MARKER_BITS) - 1));
     }
     public int controlSum() {
-        return controlSum;
+        return calculateControlSum();
     }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package lottery.utility;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Reads back what BinaryOutput wrote, through one direct buffer.
+public class BinaryInput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long bufferStart; // File position of the first byte in the buffer.
+
+    public BinaryInput(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            this.bufferStart = channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+    }
+
+    // Throws EOFException, wrapped, when the file ends before the requested bytes.
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        bufferStart += buffer.position();
+        buffer.compact();
+        try {
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) throw new EOFException("File ended in the middle of a value.");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+    }
+
+    public boolean hasRemaining() {
+        if (buffer.hasRemaining()) return true;
+        try {
+            return position() < channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getByte() {
+        ensure(1);
+        return buffer.get();
+    }
+    public int getInt() {
+        ensure(4);
+        return buffer.getInt();
+    }
+    public long getLong() {
+        ensure(8);
+        return buffer.getLong();
+    }
+    public int[] getInts(int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = getInt();
+        }
+        return values;
+    }
+    public long[] getLongs(int count) {
+        long[] values = new long[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = getLong();
+        }
+        return values;
+    }
+    public String getString() {
+        char[] chars = new char[getInt()];
+        for (int i = 0; i < chars.length; i++) {
+            ensure(2);
+            chars[i] = buffer.getChar();
+        }
+        return new String(chars);
+    }
+
+    public long position() {
+        return bufferStart + buffer.position();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package lottery.utility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+// Primitives written to a file channel through one direct buffer, with a running CRC32 of everything written.
+public class BinaryOutput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CRC32 checksum;
+
+    public BinaryOutput(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.checksum = new CRC32();
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) flush();
+    }
+
+    public void putByte(int value) {
+        ensure(1);
+        buffer.put((byte) value);
+    }
+    public void putInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+    public void putLong(long value) {
+        ensure(8);
+        buffer.putLong(value);
+    }
+    public void putInts(int[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            putInt(values[i]);
+        }
+    }
+    public void putLongs(long[] values) {
+        for (long value : values) {
+            putLong(value);
+        }
+    }
+    public void putString(String value) {
+        char[] chars = value.toCharArray();
+        putInt(chars.length);
+        for (char c : chars) {
+            ensure(2);
+            buffer.putChar(c);
+        }
+    }
+
+    // Checksum of everything written since the last call.
+    public long takeChecksum() {
+        flush();
+        long value = checksum.getValue();
+        checksum.reset();
+        return value;
+    }
+
+    // Drops what's buffered and starts a fresh checksum, after a write that failed halfway.
+    public void discard() {
+        buffer.clear();
+        checksum.reset();
+    }
+
+    public void flush() {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write to " + channel + ".", e);
+        }
+        buffer.clear();
+    }
+}
\ No newline at end of file
@@ -7,8 +7,12 @@ public final class Formatter {
     }
 
     public static String centsToString(long centCount) {
-        long dollars = centCount / 100;
-        long cents = centCount % 100;
-        return String.format("$%d.%02d", dollars, cents);
+        long dollars = Math.abs(centCount / 100);
+        long cents = Math.abs(centCount % 100);
+        StringBuilder sb = new StringBuilder(24).append('$');
+        if (centCount < 0) sb.append('-');
+        sb.append(dollars).append('.');
+        if (cents < 10) sb.append('0');
+        return sb.append(cents).toString();
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package lottery.utility;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.function.Supplier;
+
+// Every random number in the simulation comes from streams split off one seeded master generator.
+public final class RandomSource {
+
+    private static final String ALGORITHM = "L64X128MixRandom";
+    private static final String SEED_PROPERTY = "lottery.seed";
+    private static final RandomGeneratorFactory<SplittableGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+
+    private static long seed = initialSeed();
+    private static SplittableGenerator master = FACTORY.create(seed);
+    private static volatile int generation = 0;
+
+    private static final ThreadLocal<ThreadStream> CURRENT = ThreadLocal.withInitial(ThreadStream::new);
+    private static final ThreadLocal<SplittableGenerator> SCOPED = new ThreadLocal<>();
+
+    private RandomSource() {
+        throw new AssertionError("Utility class, should not be instantiated.");
+    }
+
+    private static class ThreadStream {
+        private int generation = -1;
+        private RandomGenerator generator;
+    }
+
+    private static long initialSeed() {
+        String property = System.getProperty(SEED_PROPERTY);
+        return property != null ? Long.parseLong(property) : ThreadLocalRandom.current().nextLong();
+    }
+
+    public static synchronized void reseed(long newSeed) {
+        seed = newSeed;
+        master = FACTORY.create(newSeed);
+        generation++;
+    }
+
+    public static synchronized long seed() {
+        return seed;
+    }
+
+    // Streams are split off in call order, so the same seed and the same order give the same streams.
+    public static SplittableGenerator split() {
+        SplittableGenerator scoped = SCOPED.get();
+        if (scoped != null) return scoped.split();
+        synchronized (RandomSource.class) {
+            return master.split();
+        }
+    }
+
+    // Runs the task with split() and current() on this thread drawing from a master of its own,
+    // so simulations running side by side get the same numbers as they would alone.
+    public static <T> T withSeed(long seed, Supplier<T> task) {
+        SplittableGenerator previous = SCOPED.get();
+        SCOPED.set(FACTORY.create(seed));
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                SCOPED.remove();
+            } else {
+                SCOPED.set(previous);
+            }
+        }
+    }
+
+    // A stream that depends only on the seed and the shard number, not on when it was asked for.
+    public static synchronized RandomGenerator forShard(long shard) {
+        return FACTORY.create(seed ^ mix(shard + 1));
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    public static RandomGenerator current() {
+        SplittableGenerator scoped = SCOPED.get();
+        if (scoped != null) return scoped;
+
+        ThreadStream stream = CURRENT.get();
+        if (stream.generation != generation) {
+            synchronized (RandomSource.class) {
+                stream.generator = master.split();
+                stream.generation = generation;
+            }
+        }
+        return stream.generator;
+    }
+}
\ No newline at end of file
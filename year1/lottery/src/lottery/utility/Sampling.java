@@ -0,0 +1,43 @@
+package lottery.utility;
+
+import lottery.exceptions.BadDataException;
+
+import java.util.random.RandomGenerator;
+
+public final class Sampling {
+
+    // Above this mean the normal approximation is used, below it successes are counted one by one.
+    private static final double EXACT_MEAN_LIMIT = 30;
+
+    private Sampling() {
+        throw new AssertionError("Utility class, should not be instantiated.");
+    }
+
+    // Number of successes in trials independent trials, each succeeding with the given probability.
+    public static long binomial(RandomGenerator random, long trials, double probability) {
+        if (trials < 0) throw new BadDataException("Number of trials can't be negative.");
+        if (probability < 0 || probability > 1) throw new BadDataException("Probability has to be in [0, 1].");
+        if (probability > 0.5) return trials - binomial(random, trials, 1 - probability);
+        if (trials == 0 || probability == 0) return 0;
+
+        double mean = trials * probability;
+        if (mean < EXACT_MEAN_LIMIT) {
+            return countSuccesses(random, trials, probability);
+        }
+        double deviation = Math.sqrt(mean * (1 - probability));
+        long sample = Math.round(mean + deviation * random.nextGaussian());
+        return Math.max(0, Math.min(trials, sample));
+    }
+
+    // Jumps straight from one success to the next, the gaps between them are geometric.
+    private static long countSuccesses(RandomGenerator random, long trials, double probability) {
+        double logFailure = Math.log1p(-probability);
+        long successes = 0;
+        double position = 0;
+        while (true) {
+            position += Math.floor(Math.log(1 - random.nextDouble()) / logFailure) + 1;
+            if (position > trials) return successes;
+            successes++;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,170 @@
+package lottery.infrastructure;
+
+import lottery.exceptions.BadDataException;
+import lottery.player.PersonalInfo;
+import lottery.player.Player;
+import lottery.player.PlayerMinimalist;
+import lottery.player.PlayerRandom;
+import lottery.player.PlayerSameNumbers;
+import lottery.player.PlayerSameSlip;
+import lottery.ticket.SixNumbers;
+import lottery.ticket.Slip;
+import lottery.ticket.Ticket;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckpointTest {
+
+    private static final int DRAW_COUNT = 6;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(DrawEvaluation.class)
+    void restoresWhatWasWritten(DrawEvaluation evaluation) {
+        LotteryContext context = new LotteryContext();
+        context.headquarters().setDrawEvaluation(evaluation);
+        List<Player> players = createPlayers(context, 3, 10);
+        Path path = directory.resolve("lottery.checkpoint");
+        try (Checkpoint checkpoint = new Checkpoint(context, path)) {
+            for (int i = 0; i < DRAW_COUNT; i++) {
+                playDraw(context, players);
+                checkpoint.write(players);
+            }
+        }
+
+        Checkpoint.Restored restored = Checkpoint.restore(path);
+        restored.checkpoint().close();
+        assertSameLottery(context, players, restored.context(), restored.players());
+    }
+
+    // A segment that fails halfway must leave nothing behind for the next one to write after.
+    @Test
+    void failedWriteDoesNotSpoilTheNextSegment() {
+        LotteryContext context = new LotteryContext();
+        List<Player> players = createPlayers(context, 2, 5);
+        List<Player> withUnknownPlayer = new ArrayList<>(players);
+        withUnknownPlayer.add(new Player(PersonalInfo.generateRandomInfo(), 0) {
+            @Override
+            public void buyTicket() {
+            }
+        });
+        Path path = directory.resolve("lottery.checkpoint");
+        try (Checkpoint checkpoint = new Checkpoint(context, path)) {
+            playDraw(context, players);
+            checkpoint.write(players);
+            playDraw(context, players);
+            assertThrows(BadDataException.class, () -> checkpoint.write(withUnknownPlayer));
+            checkpoint.write(players);
+        }
+
+        Checkpoint.Restored restored = Checkpoint.restore(path);
+        restored.checkpoint().close();
+        assertSameLottery(context, players, restored.context(), restored.players());
+    }
+
+    private static List<Player> createPlayers(LotteryContext context, int retailerCount, int playersOfEachType) {
+        List<Retailer> retailers = new ArrayList<>();
+        for (int i = 0; i < retailerCount; i++) {
+            retailers.add(new Retailer(context));
+        }
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playersOfEachType; i++) {
+            Retailer retailer = retailers.get(i % retailerCount);
+            players.add(new PlayerRandom(PersonalInfo.generateRandomInfo(), context.headquarters()));
+            players.add(new PlayerMinimalist(PersonalInfo.generateRandomInfo(), 1_000_00, retailer));
+            players.add(new PlayerSameNumbers(PersonalInfo.generateRandomInfo(), 1_000_00, SixNumbers.random(),
+                    retailers));
+            players.add(new PlayerSameSlip(PersonalInfo.generateRandomInfo(), 1_000_00,
+                    Slip.random(i % 8 + 1, i % 10 + 1), List.of(retailer), i % 3 + 1));
+        }
+        return players;
+    }
+
+    private static void playDraw(LotteryContext context, List<Player> players) {
+        for (Player player : players) {
+            player.buyTicket();
+        }
+        context.headquarters().drawNumbers();
+        for (Player player : players) {
+            player.collectAllFinishedTickets();
+        }
+    }
+
+    private static void assertSameLottery(LotteryContext expected, List<Player> expectedPlayers,
+                                          LotteryContext actual, List<Player> actualPlayers) {
+        LotteryHeadquarters expectedHeadquarters = expected.headquarters();
+        LotteryHeadquarters actualHeadquarters = actual.headquarters();
+        assertEquals(expectedHeadquarters.lastDrawNumber(), actualHeadquarters.lastDrawNumber());
+        assertEquals(expectedHeadquarters.lastTicketNumber(), actualHeadquarters.lastTicketNumber());
+        assertEquals(expectedHeadquarters.ledgerSnapshot(), actualHeadquarters.ledgerSnapshot());
+        for (int drawNumber = 1; drawNumber <= expectedHeadquarters.lastDrawNumber(); drawNumber++) {
+            assertEquals(expectedHeadquarters.getNumbers(drawNumber), actualHeadquarters.getNumbers(drawNumber));
+            assertEquals(expectedHeadquarters.ledgerSnapshot(drawNumber), actualHeadquarters.ledgerSnapshot(drawNumber));
+        }
+
+        assertEquals(expectedPlayers.size(), actualPlayers.size());
+        for (int i = 0; i < expectedPlayers.size(); i++) {
+            Player expectedPlayer = expectedPlayers.get(i);
+            Player actualPlayer = actualPlayers.get(i);
+            assertEquals(expectedPlayer.personalInfo(), actualPlayer.personalInfo());
+            assertEquals(expectedPlayer.balance(), actualPlayer.balance());
+            assertEquals(ticketIDs(expectedPlayer), ticketIDs(actualPlayer));
+        }
+
+        List<Retailer> expectedRetailers = expectedHeadquarters.retailers();
+        List<Retailer> actualRetailers = actualHeadquarters.retailers();
+        assertEquals(expectedRetailers.size(), actualRetailers.size());
+        int nextDrawNumber = expectedHeadquarters.lastDrawNumber() + 1;
+        for (int i = 0; i < expectedRetailers.size(); i++) {
+            assertEquals(expectedRetailers.get(i).claimedTicketCount(), actualRetailers.get(i).claimedTicketCount());
+            assertEquals(expectedRetailers.get(i).betsInDraw(nextDrawNumber),
+                    actualRetailers.get(i).betsInDraw(nextDrawNumber));
+        }
+        // The next draw, the same for both, finds the same hits: unfinished tickets are scanned or tallied again.
+        for (int i = 0; i < expectedRetailers.size(); i++) {
+            int rank = runningBetRank(expectedRetailers.get(i).soldTickets(), nextDrawNumber);
+            if (rank == -1) continue;
+            GradeCounts expectedCounts = expectedRetailers.get(i).countDrawResults(
+                    new Draw(nextDrawNumber, SixNumbers.fromRank(rank)));
+            GradeCounts actualCounts = actualRetailers.get(i).countDrawResults(
+                    new Draw(nextDrawNumber, SixNumbers.fromRank(rank)));
+            assertTrue(expectedCounts.count(1) > 0);
+            for (int grade = 1; grade <= 4; grade++) {
+                assertEquals(expectedCounts.count(grade), actualCounts.count(grade));
+            }
+        }
+    }
+
+    // A bet of some ticket taking part in the given draw, -1 if there's none.
+    private static int runningBetRank(TicketStore store, int drawNumber) {
+        for (int row = 0; row < store.rowCount(); row++) {
+            int firstDrawNumber = store.firstDrawNumber(row);
+            if (store.betCount(row) > 0 && firstDrawNumber <= drawNumber
+                    && drawNumber < firstDrawNumber + store.drawCount(row)) {
+                return store.betRank(row, 0);
+            }
+        }
+        return -1;
+    }
+
+    private static List<String> ticketIDs(Player player) {
+        List<String> ids = new ArrayList<>();
+        for (Ticket ticket : player.ownedTickets()) {
+            ids.add(ticket.ticketID().toString());
+        }
+        ids.sort(null);
+        return ids;
+    }
+}
\ No newline at end of file